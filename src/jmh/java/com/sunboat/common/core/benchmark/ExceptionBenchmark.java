@@ -0,0 +1,108 @@
+package com.sunboat.common.core.benchmark;
+
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.exception.BusinessException;
+import com.sunboat.common.core.exception.GlobalExceptionHandler;
+import com.sunboat.common.core.result.RtnResultResponseCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BusinessException创建与GlobalExceptionHandler处理基准
+ * 处理器日志级别在src/jmh/resources/logback-test.xml中关闭，结果不含日志输出开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionBenchmark {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    private MockHttpServletRequest request;
+
+    private BusinessException prebuilt;
+
+    @Setup
+    public void setup() {
+        RtnResultResponseCache responseCache = new RtnResultResponseCache();
+        responseCache.init();
+        ReflectionTestUtils.setField(handler, "responseCache", responseCache);
+        handler.init();
+        request = new MockHttpServletRequest("GET", "/api/user/1");
+        prebuilt = new BusinessException(ResultCodeEnum.NOT_FOUND);
+    }
+
+    @Benchmark
+    public BusinessException createException() {
+        return new BusinessException(ResultCodeEnum.NOT_FOUND);
+    }
+
+    @Benchmark
+    public BusinessException cachedException() {
+        return BusinessException.of(ResultCodeEnum.NOT_FOUND);
+    }
+
+    /**
+     * 对照组：开启堆栈采集时的创建开销
+     */
+    @Benchmark
+    public BusinessException createExceptionWithStackTrace() {
+        BusinessException.setStackTraceEnabled(true);
+        try {
+            return new BusinessException(ResultCodeEnum.NOT_FOUND);
+        } finally {
+            BusinessException.setStackTraceEnabled(false);
+        }
+    }
+
+    @Benchmark
+    public BusinessException createExceptionWithMessage() {
+        return new BusinessException(ResultCodeEnum.BUSINESS_ERROR, "库存不足");
+    }
+
+    @Benchmark
+    public ResponseEntity<?> handlePrebuiltException() {
+        return handler.handleBusinessException(prebuilt, request);
+    }
+
+    /**
+     * 业务代码中最常见的路径：抛出、捕获并交给处理器转换
+     */
+    @Benchmark
+    public ResponseEntity<?> throwAndHandle() {
+        try {
+            throw new BusinessException(ResultCodeEnum.NOT_FOUND);
+        } catch (BusinessException e) {
+            return handler.handleBusinessException(e, request);
+        }
+    }
+
+    /**
+     * 自定义信息，无法使用预序列化结果
+     */
+    @Benchmark
+    public ResponseEntity<?> handleCustomMessageException() {
+        return handler.handleBusinessException(new BusinessException(ResultCodeEnum.BUSINESS_ERROR, "库存不足"), request);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> handleUnknownException() {
+        return handler.handleException(new IllegalStateException("unexpected"), request);
+    }
+}
@@ -0,0 +1,69 @@
+package com.sunboat.common.core.benchmark;
+
+import com.sunboat.common.core.cache.HotKeyDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热点key探测在读路径上的额外开销（多线程竞争可通过 -Djmh.args="HotKeyDetector -t 4" 测量）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotKeyDetectorBenchmark {
+
+    @Param({"0.1", "1.0"})
+    private double sampleRate;
+
+    private HotKeyDetector detector;
+
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        detector = new HotKeyDetector();
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        ReflectionTestUtils.setField(detector, "sampleRate", sampleRate);
+        ReflectionTestUtils.setField(detector, "windowMillis", 1000L);
+        ReflectionTestUtils.setField(detector, "qpsThreshold", 1000d);
+        ReflectionTestUtils.setField(detector, "topK", 20);
+        ReflectionTestUtils.setField(detector, "sketchWidth", 4096);
+        detector.init();
+        keys = new String[10000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "user:profile:" + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.destroy();
+    }
+
+    @Benchmark
+    public boolean recordAndCheck() {
+        // 约10%的访问集中在10个key上
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String key = random.nextInt(10) == 0 ? keys[random.nextInt(10)] : keys[random.nextInt(keys.length)];
+        detector.record(key);
+        return detector.isHot(key);
+    }
+}
@@ -0,0 +1,157 @@
+package com.sunboat.common.core.benchmark;
+
+import com.sunboat.common.core.benchmark.support.RedisBenchmarkContext;
+import com.sunboat.common.core.utils.RedisAsyncUtils;
+import com.sunboat.common.core.utils.RedisBatchResult;
+import com.sunboat.common.core.utils.RedisTemplateUtils;
+import com.sunboat.common.core.utils.RedissonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis工具类基准：同一批key分别以逐条、批量命令（MGET/MSET）、管道三种方式读写，Redisson对比逐条同步与异步并发
+ * 每次调用处理batchSize个key，结果为整批耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisUtilsBenchmark {
+
+    private static final long TTL_SECONDS = 600;
+
+    @Param({"1", "10", "100"})
+    private int batchSize;
+
+    private RedisBenchmarkContext context;
+
+    private RedisTemplateUtils redisTemplateUtils;
+
+    private RedissonUtils redissonUtils;
+
+    private List<String> keys;
+
+    private Map<String, Object> values;
+
+    private Map<String, Long> ttlMillis;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        context = new RedisBenchmarkContext();
+        redisTemplateUtils = context.getRedisTemplateUtils();
+        redissonUtils = context.getRedissonUtils();
+        keys = new ArrayList<>(batchSize);
+        values = new LinkedHashMap<>();
+        ttlMillis = new HashMap<>();
+        for (int i = 0; i < batchSize; i++) {
+            String key = "bench:user:" + i;
+            Map<String, Object> value = new LinkedHashMap<>();
+            value.put("id", i);
+            value.put("name", "user-" + i);
+            keys.add(key);
+            values.put(key, value);
+            ttlMillis.put(key, TimeUnit.SECONDS.toMillis(TTL_SECONDS));
+            redisTemplateUtils.setString(key, value, TTL_SECONDS, TimeUnit.SECONDS);
+            redisTemplateUtils.setHash("bench:profile:" + i, "name", "user-" + i);
+            redissonUtils.set("bench:redisson:" + i, "user-" + i, TTL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    // ------------------- RedisTemplateUtils String -------------------
+
+    @Benchmark
+    public void getStringSingle(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(redisTemplateUtils.<Object>getString(key));
+        }
+    }
+
+    @Benchmark
+    public RedisBatchResult<String, Object> getStringBatch() {
+        return redisTemplateUtils.multiGetString(keys);
+    }
+
+    @Benchmark
+    public void setStringSingle() {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            redisTemplateUtils.setString(entry.getKey(), entry.getValue(), TTL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    public RedisBatchResult<String, Boolean> setStringBatch() {
+        return redisTemplateUtils.multiSetString(values);
+    }
+
+    @Benchmark
+    public RedisBatchResult<String, Boolean> setStringPipelined() {
+        return redisTemplateUtils.multiSetString(values, ttlMillis);
+    }
+
+    // ------------------- RedisTemplateUtils Hash -------------------
+
+    @Benchmark
+    public void getHashSingle(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            blackhole.consume(redisTemplateUtils.<Object>getHash("bench:profile:" + i, "name"));
+        }
+    }
+
+    @Benchmark
+    public RedisBatchResult<String, Object> getHashPipelined() {
+        List<String> hashKeys = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            hashKeys.add("bench:profile:" + i);
+        }
+        return redisTemplateUtils.multiGetHash(hashKeys, "name");
+    }
+
+    // ------------------- RedissonUtils -------------------
+
+    @Benchmark
+    public void redissonGetSingle(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            blackhole.consume(redissonUtils.<Object>get("bench:redisson:" + i));
+        }
+    }
+
+    /**
+     * 异步并发发出整批命令后统一等待
+     */
+    @Benchmark
+    public List<Object> redissonGetAsync() {
+        List<CompletableFuture<Object>> futures = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            futures.add(redissonUtils.getAsync("bench:redisson:" + i));
+        }
+        return RedisAsyncUtils.awaitAll(futures, 10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,88 @@
+package com.sunboat.common.core.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sunboat.common.core.result.RtnResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RtnResult构建与Jackson序列化基准，分别覆盖带分页信息与不带分页信息两种返回
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RtnResultBenchmark {
+
+    /**
+     * 列表数据的行数
+     */
+    @Param({"1", "20", "200"})
+    private int rows;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<Map<String, Object>> data;
+
+    private RtnResult<List<Map<String, Object>>> plainResult;
+
+    private RtnResult<List<Map<String, Object>>> pageResult;
+
+    @Setup
+    public void setup() {
+        data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", (long) i);
+            row.put("name", "user-" + i);
+            row.put("status", i % 3);
+            row.put("remark", "备注" + i);
+            data.add(row);
+        }
+        plainResult = RtnResult.success(data);
+        pageResult = RtnResult.success(data, 10000L, 1, rows);
+    }
+
+    @Benchmark
+    public RtnResult<List<Map<String, Object>>> buildSuccess() {
+        return RtnResult.success(data);
+    }
+
+    @Benchmark
+    public RtnResult<List<Map<String, Object>>> buildSuccessWithPageInfo() {
+        return RtnResult.success(data, 10000L, 1, rows);
+    }
+
+    @Benchmark
+    public byte[] serializeSuccess() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(plainResult);
+    }
+
+    @Benchmark
+    public byte[] serializeSuccessWithPageInfo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pageResult);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeWithPageInfo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(RtnResult.success(data, 10000L, 1, rows));
+    }
+}
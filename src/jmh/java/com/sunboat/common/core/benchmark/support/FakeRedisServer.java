@@ -0,0 +1,281 @@
+package com.sunboat.common.core.benchmark.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 进程内的简易Redis替身（RESP2协议）
+ * 仅实现基准测试用到的String/Hash命令，数据保存在内存中，不支持过期淘汰；
+ * 响应在输入缓冲区读空后统一刷新，因此管道与批量命令的网络往返收益可以体现出来
+ */
+public class FakeRedisServer implements Closeable {
+
+    private static final byte[] OK = "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL_BULK = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final Map<String, Object> data = new ConcurrentHashMap<>();
+
+    private final ServerSocket serverSocket;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "fake-redis");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running = true;
+
+    public FakeRedisServer() throws IOException {
+        serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        executor.execute(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            InputStream in = new BufferedInputStream(s.getInputStream(), 64 * 1024);
+            OutputStream out = new BufferedOutputStream(s.getOutputStream(), 64 * 1024);
+            while (running) {
+                List<byte[]> command = readCommand(in);
+                execute(command, out);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // 连接关闭
+        }
+    }
+
+    private List<byte[]> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            throw new EOFException();
+        }
+        if (type != '*') {
+            throw new IOException("unsupported request type: " + (char) type);
+        }
+        int count = (int) readNumber(in);
+        List<byte[]> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("bulk string expected");
+            }
+            int length = (int) readNumber(in);
+            byte[] arg = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int n = in.read(arg, read, length - read);
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                read += n;
+            }
+            in.read();
+            in.read();
+            args.add(arg);
+        }
+        return args;
+    }
+
+    private long readNumber(InputStream in) throws IOException {
+        long value = 0;
+        boolean negative = false;
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c < 0) {
+                throw new EOFException();
+            }
+            if (c == '-') {
+                negative = true;
+            } else {
+                value = value * 10 + (c - '0');
+            }
+        }
+        in.read();
+        return negative ? -value : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void execute(List<byte[]> args, OutputStream out) throws IOException {
+        String name = new String(args.get(0), StandardCharsets.US_ASCII).toUpperCase();
+        switch (name) {
+            case "PING":
+                out.write("+PONG\r\n".getBytes(StandardCharsets.US_ASCII));
+                break;
+            case "SELECT":
+            case "CLIENT":
+                out.write(OK);
+                break;
+            case "GET":
+                writeBulk(out, bytesAt(key(args, 1)));
+                break;
+            case "SET":
+                set(args, out);
+                break;
+            case "PSETEX":
+            case "SETEX":
+                data.put(key(args, 1), args.get(3));
+                out.write(OK);
+                break;
+            case "MGET":
+                writeArrayHeader(out, args.size() - 1);
+                for (int i = 1; i < args.size(); i++) {
+                    writeBulk(out, bytesAt(key(args, i)));
+                }
+                break;
+            case "MSET":
+                for (int i = 1; i + 1 < args.size(); i += 2) {
+                    data.put(key(args, i), args.get(i + 1));
+                }
+                out.write(OK);
+                break;
+            case "DEL":
+            case "UNLINK":
+                int removed = 0;
+                for (int i = 1; i < args.size(); i++) {
+                    removed += data.remove(key(args, i)) != null ? 1 : 0;
+                }
+                writeInteger(out, removed);
+                break;
+            case "EXISTS":
+                writeInteger(out, data.containsKey(key(args, 1)) ? 1 : 0);
+                break;
+            case "EXPIRE":
+            case "PEXPIRE":
+                writeInteger(out, data.containsKey(key(args, 1)) ? 1 : 0);
+                break;
+            case "TTL":
+            case "PTTL":
+                writeInteger(out, data.containsKey(key(args, 1)) ? -1 : -2);
+                break;
+            case "HSET":
+            case "HMSET":
+                Map<String, byte[]> hash = (Map<String, byte[]>) data.computeIfAbsent(key(args, 1),
+                        k -> new ConcurrentHashMap<String, byte[]>());
+                int added = 0;
+                for (int i = 2; i + 1 < args.size(); i += 2) {
+                    added += hash.put(key(args, i), args.get(i + 1)) == null ? 1 : 0;
+                }
+                if ("HSET".equals(name)) {
+                    writeInteger(out, added);
+                } else {
+                    out.write(OK);
+                }
+                break;
+            case "HGET":
+                Map<String, byte[]> fields = hashAt(key(args, 1));
+                writeBulk(out, fields == null ? null : fields.get(key(args, 2)));
+                break;
+            case "HGETALL":
+                Map<String, byte[]> all = hashAt(key(args, 1));
+                Map<String, byte[]> snapshot = all == null ? new LinkedHashMap<>() : new LinkedHashMap<>(all);
+                writeArrayHeader(out, snapshot.size() * 2);
+                for (Map.Entry<String, byte[]> entry : snapshot.entrySet()) {
+                    writeBulk(out, entry.getKey().getBytes(StandardCharsets.ISO_8859_1));
+                    writeBulk(out, entry.getValue());
+                }
+                break;
+            default:
+                out.write(("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private void set(List<byte[]> args, OutputStream out) throws IOException {
+        String key = key(args, 1);
+        boolean nx = false;
+        boolean xx = false;
+        for (int i = 3; i < args.size(); i++) {
+            String option = new String(args.get(i), StandardCharsets.US_ASCII).toUpperCase();
+            if ("NX".equals(option)) {
+                nx = true;
+            } else if ("XX".equals(option)) {
+                xx = true;
+            }
+        }
+        if ((nx && data.containsKey(key)) || (xx && !data.containsKey(key))) {
+            out.write(NULL_BULK);
+            return;
+        }
+        data.put(key, args.get(2));
+        out.write(OK);
+    }
+
+    /**
+     * key按ISO-8859-1解码，保证任意字节都能无损往返
+     */
+    private static String key(List<byte[]> args, int index) {
+        return new String(args.get(index), StandardCharsets.ISO_8859_1);
+    }
+
+    private byte[] bytesAt(String key) {
+        Object value = data.get(key);
+        return value instanceof byte[] ? (byte[]) value : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, byte[]> hashAt(String key) {
+        Object value = data.get(key);
+        return value instanceof Map ? (Map<String, byte[]>) value : null;
+    }
+
+    private static void writeBulk(OutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.write(NULL_BULK);
+            return;
+        }
+        out.write('$');
+        out.write(Integer.toString(value.length).getBytes(StandardCharsets.US_ASCII));
+        out.write('\r');
+        out.write('\n');
+        out.write(value);
+        out.write('\r');
+        out.write('\n');
+    }
+
+    private static void writeArrayHeader(OutputStream out, int size) throws IOException {
+        out.write(('*' + Integer.toString(size) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void writeInteger(OutputStream out, long value) throws IOException {
+        out.write((':' + Long.toString(value) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+}
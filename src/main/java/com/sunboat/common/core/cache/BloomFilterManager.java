@@ -0,0 +1,88 @@
+package com.sunboat.common.core.cache;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 布隆过滤器管理
+ * 按名称创建并缓存{@link RedisBloomFilter}，定时同步本地镜像（版本或已置位数变化时才拉取位图）
+ */
+@Slf4j
+@Component
+public class BloomFilterManager {
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 本地镜像同步间隔（秒），0表示不定时同步
+     */
+    @Value("${sunboat.bloom.sync-interval-seconds:60}")
+    private long syncIntervalSeconds;
+
+    /**
+     * 是否信任本地镜像的不存在判定（不再查询Redis确认）；
+     * 开启后其他节点新添加的元素最多要等一个同步间隔才能被本节点识别
+     */
+    @Value("${sunboat.bloom.trust-local-negative:false}")
+    private boolean trustLocalNegative;
+
+    private final Map<String, RedisBloomFilter> filters = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService syncExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (syncIntervalSeconds > 0) {
+            syncExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("bloom-sync-", true));
+            syncExecutor.scheduleWithFixedDelay(this::syncAll, syncIntervalSeconds, syncIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (syncExecutor != null) {
+            syncExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 获取布隆过滤器，不存在时按容量创建；Redis中已存在同名过滤器时沿用其位数与哈希函数个数
+     * @param name 名称
+     * @param expectedInsertions 预期元素数量
+     * @param fpp 期望误判率，如0.01
+     */
+    public RedisBloomFilter getOrCreate(String name, long expectedInsertions, double fpp) {
+        return filters.computeIfAbsent(name,
+                k -> new RedisBloomFilter(name, expectedInsertions, fpp, redisTemplate, trustLocalNegative));
+    }
+
+    /**
+     * 获取已创建的布隆过滤器，不存在时返回null
+     */
+    public RedisBloomFilter get(String name) {
+        return filters.get(name);
+    }
+
+    private void syncAll() {
+        for (RedisBloomFilter filter : filters.values()) {
+            try {
+                filter.sync();
+            } catch (Exception e) {
+                log.warn("布隆过滤器[{}]同步失败：{}", filter.getName(), e.getMessage());
+            }
+        }
+    }
+}
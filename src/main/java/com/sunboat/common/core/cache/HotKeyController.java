@@ -0,0 +1,28 @@
+package com.sunboat.common.core.cache;
+
+import com.sunboat.common.core.result.RtnResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 热点key查询接口，供值班排查使用，需显式开启sunboat.redis.hot-key.endpoint-enabled
+ */
+@RestController
+@ConditionalOnProperty(name = "sunboat.redis.hot-key.endpoint-enabled", havingValue = "true")
+public class HotKeyController {
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    /**
+     * 当前节点的热点key及估算QPS
+     */
+    @GetMapping("${sunboat.redis.hot-key.endpoint-path:/sunboat/redis/hot-keys}")
+    public RtnResult<List<HotKeyDetector.HotKey>> hotKeys() {
+        return RtnResult.success(hotKeyDetector.getHotKeys());
+    }
+}
@@ -0,0 +1,229 @@
+package com.sunboat.common.core.cache;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 热点key探测
+ * 按采样率对读操作计数，计数存于Count-Min Sketch（固定内存，与key数量无关），
+ * 估算值超过阈值的key进入候选集；每个统计窗口结束时按估算QPS取前top-k个作为热点key，
+ * 热点集合在下一个窗口内保持不变，持续热点的key会在每个窗口被重新选中。
+ * 配合{@link NearCache}的hot-key-only模式，热点key自动缓存在本地，冷却后不再命中本地
+ */
+@Slf4j
+@Component
+public class HotKeyDetector {
+
+    private static final int DEPTH = 4;
+
+    @Value("${sunboat.redis.hot-key.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 采样率（0~1）
+     */
+    @Value("${sunboat.redis.hot-key.sample-rate:0.1}")
+    private double sampleRate;
+
+    /**
+     * 统计窗口（毫秒）
+     */
+    @Value("${sunboat.redis.hot-key.window-millis:1000}")
+    private long windowMillis;
+
+    /**
+     * 判定为热点的最低估算QPS（单节点）
+     */
+    @Value("${sunboat.redis.hot-key.qps-threshold:1000}")
+    private double qpsThreshold;
+
+    /**
+     * 热点key数量上限
+     */
+    @Value("${sunboat.redis.hot-key.top-k:20}")
+    private int topK;
+
+    /**
+     * Count-Min Sketch每行的计数器个数（向上取2的幂）
+     */
+    @Value("${sunboat.redis.hot-key.sketch-width:4096}")
+    private int sketchWidth;
+
+    /**
+     * 进入候选集所需的窗口内最少采样次数
+     */
+    private long minSampledCount;
+
+    private volatile Window window;
+
+    private volatile Map<String, HotKey> hotKeys = Collections.emptyMap();
+
+    private ScheduledExecutorService rotateExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        sketchWidth = Integer.highestOneBit(Math.max(64, sketchWidth - 1) << 1);
+        minSampledCount = Math.max(1, (long) (qpsThreshold * windowMillis / 1000.0 * sampleRate));
+        window = new Window(sketchWidth, topK * 8);
+        rotateExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("hot-key-", true));
+        rotateExecutor.scheduleAtFixedRate(this::rotate, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (rotateExecutor != null) {
+            rotateExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 记录一次读操作（按采样率计数）
+     */
+    public void record(String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        Window current = window;
+        if (current.increment(key) >= minSampledCount) {
+            current.offerCandidate(key);
+        }
+    }
+
+    /**
+     * 是否为当前热点key
+     */
+    public boolean isHot(String key) {
+        return hotKeys.containsKey(key);
+    }
+
+    /**
+     * 当前热点key，按估算QPS降序
+     */
+    public List<HotKey> getHotKeys() {
+        List<HotKey> result = new ArrayList<>(hotKeys.values());
+        result.sort(Comparator.comparingLong(HotKey::getEstimatedQps).reversed());
+        return result;
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    private void rotate() {
+        try {
+            Window finished = window;
+            window = new Window(sketchWidth, topK * 8);
+            List<HotKey> candidates = new ArrayList<>(finished.candidates.size());
+            for (String key : finished.candidates.keySet()) {
+                long qps = (long) (finished.estimate(key) / sampleRate * 1000 / windowMillis);
+                if (qps >= qpsThreshold) {
+                    candidates.add(new HotKey(key, qps));
+                }
+            }
+            candidates.sort(Comparator.comparingLong(HotKey::getEstimatedQps).reversed());
+            Map<String, HotKey> next = new HashMap<>();
+            for (HotKey hotKey : candidates.subList(0, Math.min(topK, candidates.size()))) {
+                next.put(hotKey.getKey(), hotKey);
+                if (!hotKeys.containsKey(hotKey.getKey())) {
+                    log.info("发现热点key - Key: {}, 估算QPS: {}", hotKey.getKey(), hotKey.getEstimatedQps());
+                }
+            }
+            hotKeys = next.isEmpty() ? Collections.emptyMap() : next;
+        } catch (Exception e) {
+            log.warn("热点key统计失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 一个统计窗口的计数
+     */
+    private static class Window {
+        final AtomicLongArray counters;
+        final int mask;
+        final int maxCandidates;
+        final Map<String, Boolean> candidates = new ConcurrentHashMap<>();
+
+        Window(int width, int maxCandidates) {
+            this.counters = new AtomicLongArray(DEPTH * width);
+            this.mask = width - 1;
+            this.maxCandidates = maxCandidates;
+        }
+
+        /**
+         * 计数加一，返回估算值（各行计数的最小值）
+         */
+        long increment(String key) {
+            int h1 = key.hashCode() * 0x9E3779B9;
+            int h2 = Integer.rotateLeft(h1, 16) * 0x85EBCA6B;
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < DEPTH; i++) {
+                min = Math.min(min, counters.incrementAndGet(index(h1, h2, i)));
+            }
+            return min;
+        }
+
+        long estimate(String key) {
+            int h1 = key.hashCode() * 0x9E3779B9;
+            int h2 = Integer.rotateLeft(h1, 16) * 0x85EBCA6B;
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < DEPTH; i++) {
+                min = Math.min(min, counters.get(index(h1, h2, i)));
+            }
+            return min;
+        }
+
+        /**
+         * 候选集已满时不再接纳新key：真正的热点在窗口早期就会达到阈值
+         */
+        void offerCandidate(String key) {
+            if (candidates.size() < maxCandidates || candidates.containsKey(key)) {
+                candidates.putIfAbsent(key, Boolean.TRUE);
+            }
+        }
+
+        private int index(int h1, int h2, int row) {
+            int h = h1 + row * h2;
+            h ^= h >>> 15;
+            return row * (mask + 1) + (h & mask);
+        }
+    }
+
+    /**
+     * 热点key
+     */
+    @Getter
+    public static class HotKey {
+        private final String key;
+
+        /**
+         * 本节点估算QPS
+         */
+        private final long estimatedQps;
+
+        public HotKey(String key, long estimatedQps) {
+            this.key = key;
+            this.estimatedQps = estimatedQps;
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.sunboat.common.core.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Redis读操作的进程内一级缓存（L1）
+ * 分段LRU按权重淘汰，单key本地过期时间不超过Redis剩余TTL；
+ * 写操作通过Redis发布订阅广播失效消息，保证多节点一致（订阅断开期间的不一致由本地TTL兜底）；
+ * 开启hot-key-only后只缓存{@link HotKeyDetector}判定的热点key，key冷却后不再从本地读取
+ */
+@Slf4j
+@Component
+public class NearCache {
+
+    /**
+     * 失效广播频道
+     */
+    public static final String INVALIDATION_CHANNEL = "sunboat:near-cache:invalidate";
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private static final String MESSAGE_SEPARATOR = "\n";
+
+    @Value("${sunboat.redis.near-cache.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 最大权重：String值计1，Hash按字段数计
+     */
+    @Value("${sunboat.redis.near-cache.max-weight:10000}")
+    private long maxWeight;
+
+    /**
+     * 本地最长缓存时间（毫秒），实际取值不超过Redis剩余TTL
+     */
+    @Value("${sunboat.redis.near-cache.ttl-millis:5000}")
+    private long ttlMillis;
+
+    /**
+     * 是否只缓存热点key（需同时开启sunboat.redis.hot-key.enabled）
+     */
+    @Value("${sunboat.redis.near-cache.hot-key-only:false}")
+    private boolean hotKeyOnly;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    private Segment[] segments;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void init() {
+        segments = new Segment[SEGMENT_COUNT];
+        long segmentWeight = Math.max(1, maxWeight / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentWeight);
+        }
+        if (enabled) {
+            startListener();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 该key是否经近端缓存读取
+     */
+    public boolean admits(String key) {
+        return enabled && (!hotKeyOnly || hotKeyDetector.isHot(key));
+    }
+
+    // ------------------- 读取 -------------------
+
+    /**
+     * 获取String缓存值，未命中返回null
+     */
+    public Object getString(String key) {
+        Node node = getNode(key);
+        if (node != null && node.hasValue) {
+            hitCount.increment();
+            return node.value;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * 获取Hash字段缓存值，未命中返回null
+     */
+    public Object getHash(String key, String hashKey) {
+        Object value = fieldOf(getNode(key), hashKey);
+        if (value != null) {
+            hitCount.increment();
+            return value;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * 获取整个Hash缓存值，未命中返回null
+     */
+    public Map<String, Object> getHashAll(String key) {
+        Node node = getNode(key);
+        if (node != null && node.all != null) {
+            hitCount.increment();
+            return node.all;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    // ------------------- 降级读取 -------------------
+
+    /**
+     * 获取String值，包括已过期但尚未淘汰的旧值（Redis不可用时降级使用），不计入命中统计
+     * @param maxStaleMillis 允许的最大过期时长，0表示不限制
+     */
+    public Object getStaleString(String key, long maxStaleMillis) {
+        Node node = getStaleNode(key, maxStaleMillis);
+        return node != null && node.hasValue ? node.value : null;
+    }
+
+    /**
+     * 获取Hash字段值，包括已过期但尚未淘汰的旧值
+     */
+    public Object getStaleHash(String key, String hashKey, long maxStaleMillis) {
+        return fieldOf(getStaleNode(key, maxStaleMillis), hashKey);
+    }
+
+    /**
+     * 获取整个Hash，包括已过期但尚未淘汰的旧值
+     */
+    public Map<String, Object> getStaleHashAll(String key, long maxStaleMillis) {
+        Node node = getStaleNode(key, maxStaleMillis);
+        return node != null ? node.all : null;
+    }
+
+    // ------------------- 回填 -------------------
+
+    /**
+     * 开始一次回源加载，返回的版本号需传给回填方法，
+     * 加载期间若该分段发生失效则放弃回填，避免旧值覆盖
+     */
+    public long beginLoad(String key) {
+        return segmentFor(key).version;
+    }
+
+    /**
+     * 回填String值
+     * @param redisTtlMillis Redis剩余TTL（PTTL结果）
+     */
+    public void putString(String key, Object value, long redisTtlMillis, long loadVersion) {
+        long expireAt = expireAt(redisTtlMillis);
+        if (value == null || expireAt == 0 || !admits(key)) {
+            return;
+        }
+        Node node = new Node(expireAt);
+        node.value = value;
+        node.hasValue = true;
+        segmentFor(key).put(key, node, loadVersion);
+    }
+
+    /**
+     * 回填Hash字段值
+     */
+    public void putHash(String key, String hashKey, Object value, long redisTtlMillis, long loadVersion) {
+        long expireAt = expireAt(redisTtlMillis);
+        if (value == null || expireAt == 0 || !admits(key)) {
+            return;
+        }
+        segmentFor(key).putField(key, hashKey, value, expireAt, loadVersion);
+    }
+
+    /**
+     * 回填整个Hash
+     */
+    public void putHashAll(String key, Map<String, Object> entries, long redisTtlMillis, long loadVersion) {
+        long expireAt = expireAt(redisTtlMillis);
+        if (entries == null || entries.isEmpty() || expireAt == 0 || !admits(key)) {
+            return;
+        }
+        Node node = new Node(expireAt);
+        node.all = Collections.unmodifiableMap(new HashMap<>(entries));
+        segmentFor(key).put(key, node, loadVersion);
+    }
+
+    // ------------------- 失效 -------------------
+
+    /**
+     * 失效本地缓存并广播到其他节点
+     */
+    public void invalidate(String key) {
+        if (!enabled) {
+            return;
+        }
+        invalidateLocal(key);
+        publish(Collections.singletonList(key));
+    }
+
+    /**
+     * 批量失效本地缓存并广播到其他节点
+     */
+    public void invalidateAll(Collection<String> keys) {
+        if (!enabled || keys == null || keys.isEmpty()) {
+            return;
+        }
+        for (String key : keys) {
+            invalidateLocal(key);
+        }
+        publish(keys);
+    }
+
+    /**
+     * 仅失效本地缓存
+     */
+    public void invalidateLocal(String key) {
+        if (segmentFor(key).remove(key)) {
+            invalidationCount.increment();
+        }
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Stats getStats() {
+        long size = 0;
+        long weight = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+                weight += segment.weight;
+            }
+        }
+        return new Stats(hitCount.sum(), missCount.sum(), evictionCount.sum(), invalidationCount.sum(), size, weight);
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    private Node getNode(String key) {
+        if (!admits(key)) {
+            return null;
+        }
+        Segment segment = segmentFor(key);
+        Node node = segment.get(key);
+        if (node == null || node.expireAt - System.nanoTime() <= 0) {
+            return null;
+        }
+        return node;
+    }
+
+    /**
+     * 失效的key已从本地移除，剩余节点过期后仍保留到被淘汰为止
+     */
+    private Node getStaleNode(String key, long maxStaleMillis) {
+        if (!enabled) {
+            return null;
+        }
+        Node node = segmentFor(key).get(key);
+        if (node == null || maxStaleMillis > 0
+                && System.nanoTime() - node.expireAt > TimeUnit.MILLISECONDS.toNanos(maxStaleMillis)) {
+            return null;
+        }
+        return node;
+    }
+
+    private Object fieldOf(Node node, String hashKey) {
+        if (node == null) {
+            return null;
+        }
+        Object value = node.all != null ? node.all.get(hashKey) : null;
+        if (value == null && node.fields != null) {
+            value = node.fields.get(hashKey);
+        }
+        return value;
+    }
+
+    /**
+     * 计算本地过期时间点，返回0表示不缓存
+     */
+    private long expireAt(long redisTtlMillis) {
+        // -2：key不存在；0：即将过期
+        if (!enabled || redisTtlMillis == -2 || redisTtlMillis == 0) {
+            return 0;
+        }
+        long ttl = redisTtlMillis > 0 ? Math.min(ttlMillis, redisTtlMillis) : ttlMillis;
+        long expireAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl);
+        return expireAt == 0 ? 1 : expireAt;
+    }
+
+    private Segment segmentFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (SEGMENT_COUNT - 1)];
+    }
+
+    private void publish(Collection<String> keys) {
+        StringBuilder message = new StringBuilder(nodeId);
+        for (String key : keys) {
+            message.append(MESSAGE_SEPARATOR).append(key);
+        }
+        byte[] channel = INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+        byte[] body = message.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.execute(connection -> connection.publish(channel, body), true);
+        } catch (Exception e) {
+            log.warn("近端缓存失效广播失败，其他节点将在本地TTL后过期，keys: {}, 异常: {}", keys, e.getMessage());
+        }
+    }
+
+    private void startListener() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        listenerContainer.addMessageListener(new InvalidationListener(), new ChannelTopic(INVALIDATION_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    /**
+     * 失效消息监听：消息体首行为发送方节点ID，其余每行一个key
+     */
+    private class InvalidationListener implements MessageListener {
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(MESSAGE_SEPARATOR);
+            if (parts.length < 2 || nodeId.equals(parts[0])) {
+                return;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                invalidateLocal(parts[i]);
+            }
+        }
+    }
+
+    /**
+     * 缓存节点：一个Redis key对应一个节点
+     * 节点放入分段后不再修改（回填字段时复制出新节点），读取方在分段锁外访问其字段是安全的
+     */
+    private static class Node {
+        final long expireAt;
+        Object value;
+        boolean hasValue;
+        Map<String, Object> fields;
+        Map<String, Object> all;
+
+        Node(long expireAt) {
+            this.expireAt = expireAt;
+        }
+
+        int weight() {
+            int weight = (hasValue ? 1 : 0) + (fields == null ? 0 : fields.size()) + (all == null ? 0 : all.size());
+            return Math.max(1, weight);
+        }
+    }
+
+    /**
+     * LRU分段，按访问顺序淘汰
+     */
+    private class Segment {
+        final long maxWeight;
+        final LinkedHashMap<String, Node> map = new LinkedHashMap<>(16, 0.75f, true);
+        long weight;
+        volatile long version;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized Node get(String key) {
+            return map.get(key);
+        }
+
+        synchronized void put(String key, Node node, long loadVersion) {
+            if (loadVersion != version) {
+                return;
+            }
+            Node old = map.put(key, node);
+            if (old != null) {
+                weight -= old.weight();
+            }
+            weight += node.weight();
+            evict();
+        }
+
+        synchronized void putField(String key, String hashKey, Object value, long expireAt, long loadVersion) {
+            if (loadVersion != version) {
+                return;
+            }
+            // 写时复制：已发布的节点可能正被读取方无锁访问，不能原地修改
+            Node old = map.get(key);
+            Node node;
+            Map<String, Object> fields;
+            if (old == null || old.expireAt - System.nanoTime() <= 0) {
+                node = new Node(expireAt);
+                fields = new HashMap<>();
+            } else {
+                node = new Node(old.expireAt);
+                node.value = old.value;
+                node.hasValue = old.hasValue;
+                node.all = old.all;
+                fields = old.fields == null ? new HashMap<>() : new HashMap<>(old.fields);
+            }
+            fields.put(hashKey, value);
+            node.fields = Collections.unmodifiableMap(fields);
+            if (old != null) {
+                weight -= old.weight();
+            }
+            map.put(key, node);
+            weight += node.weight();
+            evict();
+        }
+
+        synchronized boolean remove(String key) {
+            version++;
+            Node old = map.remove(key);
+            if (old != null) {
+                weight -= old.weight();
+                return true;
+            }
+            return false;
+        }
+
+        private void evict() {
+            Iterator<Node> iterator = map.values().iterator();
+            while (weight > maxWeight && iterator.hasNext()) {
+                Node eldest = iterator.next();
+                iterator.remove();
+                weight -= eldest.weight();
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * 统计信息
+     */
+    @Getter
+    public static class Stats {
+        /**
+         * 命中次数
+         */
+        private final long hitCount;
+
+        /**
+         * 未命中次数
+         */
+        private final long missCount;
+
+        /**
+         * 容量淘汰次数
+         */
+        private final long evictionCount;
+
+        /**
+         * 失效次数（本地写入及广播）
+         */
+        private final long invalidationCount;
+
+        /**
+         * 当前缓存key数量
+         */
+        private final long size;
+
+        /**
+         * 当前总权重
+         */
+        private final long weight;
+
+        public Stats(long hitCount, long missCount, long evictionCount, long invalidationCount, long size, long weight) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.invalidationCount = invalidationCount;
+            this.size = size;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,639 @@
+package com.sunboat.common.core.cache;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import com.sunboat.common.core.utils.RedisKeyUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * 基于Redis位图的布隆过滤器，带本地镜像
+ * 本地镜像中位全部命中时直接判定可能存在（位只增不减，本地已置位的位在Redis中一定已置位）；
+ * 本地未命中时再查询Redis确认（其他节点可能已添加），确认存在的位同步回本地；
+ * 容量不足时通过{@link #rebuild}按新容量从数据源重建，重建期间旧位图继续提供服务，完成后原子切换版本。
+ * 添加元素时由Lua脚本校验版本，重建期间同时写入新旧位图；版本已变更的节点重新加载后重试，不会漏写到新位图。
+ * 通过{@link BloomFilterManager}创建
+ */
+@Slf4j
+public class RedisBloomFilter {
+
+    private static final String KEY_PREFIX = "sunboat:bloom:";
+
+    /**
+     * 重建后旧位图保留时间，供尚未切换版本的节点继续使用
+     */
+    private static final long OLD_BITS_GRACE_MILLIS = 5 * 60 * 1000L;
+
+    /**
+     * 重建标记的有效期，超时未完成（如重建节点宕机）时允许其他节点重新发起重建
+     */
+    private static final long REBUILD_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    /**
+     * 写入位图时单条SETRANGE的字节数
+     */
+    private static final int WRITE_CHUNK_BYTES = 512 * 1024;
+
+    /**
+     * 同步本地镜像时的分片字节数（须为8的倍数，与本地镜像的long对齐）
+     */
+    private static final int SYNC_CHUNK_BYTES = 64 * 1024;
+
+    /**
+     * 同步本地镜像时单个管道拉取的最大分片数，限制单次传输与内存占用
+     */
+    private static final int SYNC_FETCH_CHUNKS = 64;
+
+    /**
+     * 单次添加脚本包含的最大元素数
+     */
+    private static final int ADD_CHUNK_MEMBERS = 500;
+
+    /**
+     * 添加时版本不一致的最大重试次数
+     */
+    private static final int ADD_MAX_ATTEMPTS = 3;
+
+    /**
+     * 初始化元数据：不存在时写入，返回当前的位数、哈希函数个数与版本
+     */
+    private static final byte[] INIT_SCRIPT = bytes(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then "
+                    + "redis.call('HMSET', KEYS[1], 'bits', ARGV[1], 'hashes', ARGV[2], 'version', '1') end "
+                    + "return redis.call('HMGET', KEYS[1], 'bits', 'hashes', 'version')");
+
+    /**
+     * 添加元素：KEYS[1]元数据，KEYS[2]当前位图，KEYS[3]重建中的新位图（无重建时同KEYS[2]）；
+     * ARGV：期望的当前版本、期望的新版本（无重建时为空）、当前位图的偏移量个数n、n个当前位图偏移量、其余为新位图偏移量。
+     * 版本与元数据不一致时返回0，由调用方重新加载后重试
+     */
+    private static final byte[] ADD_SCRIPT = bytes(
+            "local meta = redis.call('HMGET', KEYS[1], 'version', 'next') "
+                    + "if meta[1] ~= ARGV[1] or (meta[2] or '') ~= ARGV[2] then return 0 end "
+                    + "local n = tonumber(ARGV[3]) "
+                    + "for i = 4, 3 + n do redis.call('SETBIT', KEYS[2], ARGV[i], 1) end "
+                    + "for i = 4 + n, #ARGV do redis.call('SETBIT', KEYS[3], ARGV[i], 1) end "
+                    + "return 1");
+
+    /**
+     * 开始重建：KEYS[1]元数据；ARGV：期望的当前版本、新版本、新位数、新哈希函数个数、当前时间、重建标记有效期。
+     * 其他节点正在重建且未超时时返回0
+     */
+    private static final byte[] BEGIN_REBUILD_SCRIPT = bytes(
+            "local meta = redis.call('HMGET', KEYS[1], 'version', 'next', 'next_at') "
+                    + "if meta[1] ~= ARGV[1] then return 0 end "
+                    + "if meta[2] and tonumber(ARGV[5]) - tonumber(meta[3] or '0') < tonumber(ARGV[6]) then return 0 end "
+                    + "redis.call('HMSET', KEYS[1], 'next', ARGV[2], 'next_bits', ARGV[3], 'next_hashes', ARGV[4], "
+                    + "'next_at', ARGV[5]) "
+                    + "return 1");
+
+    /**
+     * 切换版本：KEYS[1]元数据，KEYS[2]旧位图；ARGV：期望的当前版本、新版本、旧位图保留毫秒数
+     */
+    private static final byte[] SWITCH_SCRIPT = bytes(
+            "local meta = redis.call('HMGET', KEYS[1], 'version', 'next', 'next_bits', 'next_hashes') "
+                    + "if meta[1] ~= ARGV[1] or meta[2] ~= ARGV[2] then return 0 end "
+                    + "redis.call('HMSET', KEYS[1], 'bits', meta[3], 'hashes', meta[4], 'version', ARGV[2]) "
+                    + "redis.call('HDEL', KEYS[1], 'next', 'next_bits', 'next_hashes', 'next_at') "
+                    + "redis.call('PEXPIRE', KEYS[2], ARGV[3]) "
+                    + "return 1");
+
+    /**
+     * 放弃重建：KEYS[1]元数据；ARGV：新版本。仅清除本次重建的标记
+     */
+    private static final byte[] ABORT_REBUILD_SCRIPT = bytes(
+            "if redis.call('HGET', KEYS[1], 'next') == ARGV[1] then "
+                    + "redis.call('HDEL', KEYS[1], 'next', 'next_bits', 'next_hashes', 'next_at') end "
+                    + "return 1");
+
+    private static final byte[] FIELD_VERSION = bytes("version");
+
+    private static final byte[] FIELD_NEXT = bytes("next");
+
+    private final String name;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final boolean trustLocalNegative;
+
+    private final byte[] metaKey;
+
+    private volatile State state;
+
+    RedisBloomFilter(String name, long expectedInsertions, double fpp, RedisTemplate<String, Object> redisTemplate,
+                     boolean trustLocalNegative) {
+        this.name = name;
+        this.redisTemplate = redisTemplate;
+        this.trustLocalNegative = trustLocalNegative;
+        this.metaKey = bytes(RedisKeyUtils.taggedKey(KEY_PREFIX, name, "meta"));
+        long bits = optimalNumOfBits(expectedInsertions, fpp);
+        int hashes = optimalNumOfHashes(expectedInsertions, bits);
+        List<byte[]> meta = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.eval(INIT_SCRIPT, ReturnType.MULTI, 1, metaKey, bytes(String.valueOf(bits)),
+                        bytes(String.valueOf(hashes))));
+        this.state = newState(meta);
+        reload();
+        sync();
+    }
+
+    // ------------------- 容量计算 -------------------
+
+    /**
+     * 按预期元素数量与误判率计算位数
+     */
+    public static long optimalNumOfBits(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("expectedInsertions必须大于0，fpp必须在(0, 1)之间");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        // Redis位图最大2^32位
+        return Math.min(Math.max(64, bits), 1L << 32);
+    }
+
+    /**
+     * 按预期元素数量与位数计算哈希函数个数
+     */
+    public static int optimalNumOfHashes(long expectedInsertions, long bits) {
+        return Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 按已置位数估算误判率
+     */
+    public static double estimateFpp(long setBits, long bits, int hashes) {
+        return Math.pow((double) setBits / bits, hashes);
+    }
+
+    // ------------------- 读写 -------------------
+
+    /**
+     * 是否可能存在；返回false时一定不存在
+     */
+    public boolean mightContain(String member) {
+        State current = state;
+        long[] indexes = current.indexes(member);
+        if (current.allSet(indexes)) {
+            return true;
+        }
+        if (trustLocalNegative) {
+            return false;
+        }
+        try {
+            return mightContainRemote(member, current, indexes, true);
+        } catch (Exception e) {
+            // Redis不可用时按可能存在处理，不拦截正常请求
+            log.warn("布隆过滤器[{}]查询Redis失败，按可能存在处理：{}", name, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 添加元素
+     */
+    public void add(String member) {
+        addAll(Collections.singletonList(member));
+    }
+
+    /**
+     * 批量添加元素（按批执行脚本，校验版本后写入当前位图，重建期间同时写入新位图）
+     */
+    public void addAll(Collection<String> members) {
+        if (members.isEmpty()) {
+            return;
+        }
+        List<String> memberList = new ArrayList<>(members);
+        for (int from = 0; from < memberList.size(); from += ADD_CHUNK_MEMBERS) {
+            addChunk(memberList.subList(from, Math.min(from + ADD_CHUNK_MEMBERS, memberList.size())));
+        }
+    }
+
+    /**
+     * 同步本地镜像：先比较版本与已置位数，版本变更时重新加载；Redis中有本地缺少的位时，
+     * 按分片（64KB）比较已置位数，只拉取（GETRANGE）有变化的分片。
+     * 每次同步Redis端需对整个位图执行BITCOUNT（CPU开销与位图大小成正比），网络传输只与变化的分片数有关
+     */
+    public void sync() {
+        State current = state;
+        List<Object> results = executePipelined(connection -> {
+            connection.hGet(metaKey, FIELD_VERSION);
+            connection.hGet(metaKey, FIELD_NEXT);
+            connection.bitCount(current.bitsKey);
+        });
+        if (!current.matches(results.get(0), results.get(1))) {
+            reload();
+            return;
+        }
+        Object setBits = results.get(2);
+        if (setBits instanceof Number && ((Number) setBits).longValue() > current.localBitCount()) {
+            pull(current);
+        }
+    }
+
+    /**
+     * 按新容量从数据源重建（如容量不足、误判率升高时）
+     * @param expectedInsertions 新的预期元素数量
+     * @param fpp 新的误判率
+     * @param members 全量元素（应来自数据源）
+     * @return 是否重建成功；其他节点同时重建时返回false
+     */
+    public boolean rebuild(long expectedInsertions, double fpp, Iterable<String> members) {
+        State current = state;
+        long bits = optimalNumOfBits(expectedInsertions, fpp);
+        int hashes = optimalNumOfHashes(expectedInsertions, bits);
+        String newVersion = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        Long begun = redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.eval(BEGIN_REBUILD_SCRIPT, ReturnType.INTEGER, 1, metaKey, bytes(current.version),
+                        bytes(newVersion), bytes(String.valueOf(bits)), bytes(String.valueOf(hashes)),
+                        bytes(String.valueOf(System.currentTimeMillis())), bytes(String.valueOf(REBUILD_TIMEOUT_MILLIS))));
+        if (begun == null || begun == 0) {
+            return false;
+        }
+        State rebuilt = new State(name, bits, hashes, newVersion, true, null);
+        byte[] snapshotKey = bytes(RedisKeyUtils.taggedKey(KEY_PREFIX, name, "bits", newVersion, "snapshot"));
+        boolean switched = false;
+        try {
+            // 先让本节点感知重建标记，之后添加的元素同时写入新位图
+            reload();
+            for (String member : members) {
+                rebuilt.setLocal(rebuilt.indexes(member));
+            }
+            byte[] bitmap = rebuilt.toBytes();
+            // 快照写入临时key后按位或合并，保留重建期间其他节点写入新位图的元素
+            executePipelined(connection -> {
+                for (int offset = 0; offset < bitmap.length; offset += WRITE_CHUNK_BYTES) {
+                    int end = Math.min(bitmap.length, offset + WRITE_CHUNK_BYTES);
+                    connection.setRange(snapshotKey, Arrays.copyOfRange(bitmap, offset, end), offset);
+                }
+                connection.bitOp(RedisStringCommands.BitOperation.OR, rebuilt.bitsKey, rebuilt.bitsKey, snapshotKey);
+                connection.del(snapshotKey);
+            });
+            Long result = redisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.eval(SWITCH_SCRIPT, ReturnType.INTEGER, 2, metaKey, current.bitsKey,
+                            bytes(current.version), bytes(newVersion), bytes(String.valueOf(OLD_BITS_GRACE_MILLIS))));
+            switched = result != null && result == 1;
+        } finally {
+            if (!switched) {
+                redisTemplate.execute((RedisCallback<Object>) connection -> {
+                    connection.eval(ABORT_REBUILD_SCRIPT, ReturnType.INTEGER, 1, metaKey, bytes(newVersion));
+                    return connection.del(rebuilt.bitsKey, snapshotKey);
+                });
+            }
+        }
+        if (!switched) {
+            reload();
+            return false;
+        }
+        // 合并重建期间其他节点写入新位图的元素
+        pull(rebuilt);
+        state = rebuilt;
+        log.info("布隆过滤器[{}]重建完成，位数: {}, 哈希函数个数: {}, 版本: {}", name, bits, hashes, newVersion);
+        return true;
+    }
+
+    /**
+     * 按Redis中的已置位数估算当前误判率
+     */
+    public double estimatedFpp() {
+        State current = state;
+        Long setBits = redisTemplate.execute((RedisCallback<Long>) connection -> connection.bitCount(current.bitsKey));
+        return estimateFpp(setBits == null ? 0 : setBits, current.bits, current.hashes);
+    }
+
+    /**
+     * 按Redis中的已置位数估算已添加的元素数量
+     */
+    public long estimatedInsertions() {
+        State current = state;
+        Long setBits = redisTemplate.execute((RedisCallback<Long>) connection -> connection.bitCount(current.bitsKey));
+        if (setBits == null || setBits == 0) {
+            return 0;
+        }
+        double ratio = Math.min((double) setBits / current.bits, 1 - 1e-9);
+        return Math.round(-((double) current.bits / current.hashes) * Math.log(1 - ratio));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    private boolean mightContainRemote(String member, State current, long[] indexes, boolean retry) {
+        List<Object> results = executePipelined(connection -> {
+            connection.hGet(metaKey, FIELD_VERSION);
+            for (long index : indexes) {
+                connection.getBit(current.bitsKey, index);
+            }
+        });
+        Object version = results.get(0);
+        if (version instanceof byte[] && !current.version.equals(string((byte[]) version))) {
+            reload();
+            return retry && mightContainRemote(member, state, state.indexes(member), false);
+        }
+        for (int i = 1; i < results.size(); i++) {
+            if (!Boolean.TRUE.equals(results.get(i))) {
+                return false;
+            }
+        }
+        current.setLocal(indexes);
+        return true;
+    }
+
+    /**
+     * 元数据变更后重新加载：版本变更时拉取新位图，仅重建标记变更时沿用本地镜像
+     */
+    private synchronized void reload() {
+        List<byte[]> meta = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.hMGet(metaKey, bytes("bits"), bytes("hashes"), FIELD_VERSION, FIELD_NEXT,
+                        bytes("next_bits"), bytes("next_hashes")));
+        State loaded = newState(meta);
+        State current = state;
+        if (loaded.version.equals(current.version)) {
+            if (!current.sameNext(loaded.next)) {
+                state = current.withNext(loaded.next);
+            }
+            return;
+        }
+        pull(loaded);
+        state = loaded;
+        log.info("布隆过滤器[{}]已切换到版本: {}", name, loaded.version);
+    }
+
+    /**
+     * 按分片比较Redis与本地镜像的已置位数，只拉取Redis中有本地缺少的位的分片合并到本地镜像
+     */
+    private void pull(State target) {
+        long length = (target.bits + 7) >>> 3;
+        int chunks = (int) ((length + SYNC_CHUNK_BYTES - 1) / SYNC_CHUNK_BYTES);
+        List<Object> counts = executePipelined(connection -> {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                long start = (long) chunk * SYNC_CHUNK_BYTES;
+                connection.bitCount(target.bitsKey, start, Math.min(length, start + SYNC_CHUNK_BYTES) - 1);
+            }
+        });
+        List<Integer> changed = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            Object count = counts.get(chunk);
+            int fromWord = chunk * (SYNC_CHUNK_BYTES / 8);
+            if (count instanceof Number
+                    && ((Number) count).longValue() > target.localBitCount(fromWord, fromWord + SYNC_CHUNK_BYTES / 8)) {
+                changed.add(chunk);
+            }
+        }
+        for (int from = 0; from < changed.size(); from += SYNC_FETCH_CHUNKS) {
+            List<Integer> batch = changed.subList(from, Math.min(from + SYNC_FETCH_CHUNKS, changed.size()));
+            List<Object> ranges = executePipelined(connection -> {
+                for (int chunk : batch) {
+                    long start = (long) chunk * SYNC_CHUNK_BYTES;
+                    connection.getRange(target.bitsKey, start, Math.min(length, start + SYNC_CHUNK_BYTES) - 1);
+                }
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                Object range = ranges.get(i);
+                if (range instanceof byte[]) {
+                    target.merge((byte[]) range, (long) batch.get(i) * SYNC_CHUNK_BYTES);
+                }
+            }
+        }
+    }
+
+    private State newState(List<byte[]> meta) {
+        if (meta == null || meta.size() < 3 || meta.get(0) == null) {
+            throw new IllegalStateException("布隆过滤器[" + name + "]元数据不存在");
+        }
+        State next = meta.size() >= 6 && meta.get(3) != null && meta.get(4) != null && meta.get(5) != null
+                ? new State(name, Long.parseLong(string(meta.get(4))), Integer.parseInt(string(meta.get(5))),
+                string(meta.get(3)), false, null)
+                : null;
+        return new State(name, Long.parseLong(string(meta.get(0))), Integer.parseInt(string(meta.get(1))),
+                string(meta.get(2)), true, next);
+    }
+
+    /**
+     * 添加一批元素，版本与Redis不一致时重新加载后重试
+     */
+    private void addChunk(List<String> members) {
+        for (int attempt = 1; ; attempt++) {
+            State current = state;
+            long[][] indexes = new long[members.size()][];
+            for (int i = 0; i < members.size(); i++) {
+                indexes[i] = current.indexes(members.get(i));
+            }
+            byte[][] keysAndArgs = addScriptArgs(current, members, indexes);
+            Long added = redisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.eval(ADD_SCRIPT, ReturnType.INTEGER, 3, keysAndArgs));
+            if (added != null && added == 1) {
+                for (long[] memberIndexes : indexes) {
+                    current.setLocal(memberIndexes);
+                }
+                return;
+            }
+            if (attempt >= ADD_MAX_ATTEMPTS) {
+                throw new IllegalStateException("布隆过滤器[" + name + "]版本频繁变更，添加失败");
+            }
+            reload();
+        }
+    }
+
+    /**
+     * 添加脚本的keys与参数
+     */
+    private byte[][] addScriptArgs(State current, List<String> members, long[][] indexes) {
+        State next = current.next;
+        List<byte[]> args = new ArrayList<>();
+        args.add(metaKey);
+        args.add(current.bitsKey);
+        args.add(next == null ? current.bitsKey : next.bitsKey);
+        args.add(bytes(current.version));
+        args.add(bytes(next == null ? "" : next.version));
+        args.add(bytes(String.valueOf(members.size() * current.hashes)));
+        for (long[] memberIndexes : indexes) {
+            for (long index : memberIndexes) {
+                args.add(bytes(String.valueOf(index)));
+            }
+        }
+        if (next != null) {
+            for (String member : members) {
+                for (long index : next.indexes(member)) {
+                    args.add(bytes(String.valueOf(index)));
+                }
+            }
+        }
+        return args.toArray(new byte[0][]);
+    }
+
+    private List<Object> executePipelined(Consumer<RedisConnection> commands) {
+        return redisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+            connection.openPipeline();
+            boolean closed = false;
+            try {
+                commands.accept(connection);
+                List<Object> results = connection.closePipeline();
+                closed = true;
+                return results;
+            } finally {
+                if (!closed) {
+                    connection.closePipeline();
+                }
+            }
+        }, true);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 某一版本的位图参数与本地镜像
+     */
+    private static class State {
+        final long bits;
+        final int hashes;
+        final String version;
+        final byte[] bitsKey;
+        /**
+         * 本地镜像，重建中的新版本不维护镜像时为null
+         */
+        final AtomicLongArray words;
+        /**
+         * 重建中的新版本，无重建时为null
+         */
+        final State next;
+
+        State(String name, long bits, int hashes, String version, boolean mirror, State next) {
+            this(bits, hashes, version, bytes(RedisKeyUtils.taggedKey(KEY_PREFIX, name, "bits", version)),
+                    mirror ? new AtomicLongArray((int) ((bits + 63) >>> 6)) : null, next);
+        }
+
+        private State(long bits, int hashes, String version, byte[] bitsKey, AtomicLongArray words, State next) {
+            this.bits = bits;
+            this.hashes = hashes;
+            this.version = version;
+            this.bitsKey = bitsKey;
+            this.words = words;
+            this.next = next;
+        }
+
+        /**
+         * 共用本地镜像，替换重建中的新版本
+         */
+        State withNext(State next) {
+            return new State(bits, hashes, version, bitsKey, words, next);
+        }
+
+        boolean sameNext(State other) {
+            return next == null ? other == null : other != null && next.version.equals(other.version);
+        }
+
+        /**
+         * 是否与Redis中的当前版本及重建标记一致
+         */
+        boolean matches(Object version, Object nextVersion) {
+            return version instanceof byte[] && this.version.equals(string((byte[]) version))
+                    && (next == null ? nextVersion == null
+                    : nextVersion instanceof byte[] && next.version.equals(string((byte[]) nextVersion)));
+        }
+
+        long localBitCount() {
+            return localBitCount(0, words.length());
+        }
+
+        /**
+         * 本地镜像[fromWord, toWord)范围内的已置位数
+         */
+        long localBitCount(int fromWord, int toWord) {
+            long count = 0;
+            for (int word = fromWord; word < Math.min(toWord, words.length()); word++) {
+                count += Long.bitCount(words.get(word));
+            }
+            return count;
+        }
+
+        /**
+         * 双重哈希：index_i = h1 + i * h2
+         */
+        long[] indexes(String member) {
+            long[] hash = MurmurHash.hash128(bytes(member));
+            long[] indexes = new long[hashes];
+            long combined = hash[0];
+            for (int i = 0; i < hashes; i++) {
+                indexes[i] = (combined & Long.MAX_VALUE) % bits;
+                combined += hash[1];
+            }
+            return indexes;
+        }
+
+        boolean allSet(long[] indexes) {
+            for (long index : indexes) {
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void setLocal(long[] indexes) {
+            for (long index : indexes) {
+                setLocal(index);
+            }
+        }
+
+        void setLocal(long index) {
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            while (((current = words.get(word)) & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 合并Redis位图片段（Redis中偏移量o对应第o/8字节的从高到低第o%8位）
+         * @param byteOffset 片段在位图中的起始字节
+         */
+        void merge(byte[] bitmap, long byteOffset) {
+            int length = (int) Math.min(bitmap.length, ((bits + 7) >>> 3) - byteOffset);
+            for (int i = 0; i < length; i++) {
+                int b = bitmap[i] & 0xFF;
+                while (b != 0) {
+                    int highest = Integer.numberOfLeadingZeros(b) - 24;
+                    long index = ((byteOffset + i) << 3) + highest;
+                    setLocal(index);
+                    b &= ~(0x80 >>> highest);
+                }
+            }
+        }
+
+        byte[] toBytes() {
+            byte[] bitmap = new byte[(int) ((bits + 7) >>> 3)];
+            for (int word = 0; word < words.length(); word++) {
+                long value = words.get(word);
+                while (value != 0) {
+                    long index = ((long) word << 6) + Long.numberOfTrailingZeros(value);
+                    bitmap[(int) (index >>> 3)] |= (byte) (0x80 >>> (index & 7));
+                    value &= value - 1;
+                }
+            }
+            return bitmap;
+        }
+    }
+}
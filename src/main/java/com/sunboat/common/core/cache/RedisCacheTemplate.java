@@ -0,0 +1,313 @@
+package com.sunboat.common.core.cache;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.sunboat.common.core.utils.RedisTemplateUtils;
+import com.sunboat.common.core.utils.RedissonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 缓存旁路（Cache-Aside）模板
+ * 未命中时同一JVM内相同key只回源一次（single-flight），可选通过分布式锁保证集群内只回源一次；
+ * 等待其他线程回源超过load-wait-millis时自行回源；loader内对同一key再次调用getOrLoad会被拒绝（否则等待自身）；
+ * 命中时按XFetch算法概率性提前刷新，热点key在过期前由后台线程重新加载，请求方继续读取旧值；
+ * 配置null-ttl-millis后，回源结果为null时写入短TTL的空值占位，防止不存在的key反复穿透到数据源（默认关闭，
+ * 占位直接写在业务key上，不经本模板读取该key的代码会读到占位字符串；防穿透优先使用布隆过滤器）
+ */
+@Slf4j
+@Component
+public class RedisCacheTemplate {
+
+    private static final String LOAD_LOCK_PREFIX = "sunboat:cache:load-lock:";
+
+    /**
+     * 空值占位，表示数据源中不存在该数据
+     */
+    public static final String NULL_PLACEHOLDER = "__SUNBOAT_NULL__";
+
+    /**
+     * 记录回源耗时的key数量上限，超出后清空重新统计
+     */
+    private static final int MAX_COST_ENTRIES = 10000;
+
+    /**
+     * 当前线程正在回源的key，用于检测loader内对同一key的重入调用
+     */
+    private static final ThreadLocal<Set<String>> LOADING_KEYS = ThreadLocal.withInitial(HashSet::new);
+
+    @Autowired
+    private RedisTemplateUtils redisTemplateUtils;
+
+    @Autowired
+    private RedissonUtils redissonUtils;
+
+    /**
+     * 提前刷新系数，越大越早刷新，0表示关闭提前刷新
+     */
+    @Value("${sunboat.cache.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+
+    /**
+     * 无回源耗时记录时使用的默认耗时（毫秒）
+     */
+    @Value("${sunboat.cache.default-load-millis:100}")
+    private long defaultLoadMillis;
+
+    /**
+     * 分布式回源锁等待时间（毫秒）
+     */
+    @Value("${sunboat.cache.lock-wait-millis:3000}")
+    private long lockWaitMillis;
+
+    /**
+     * 分布式回源锁租期（毫秒）
+     */
+    @Value("${sunboat.cache.lock-lease-millis:10000}")
+    private long lockLeaseMillis;
+
+    /**
+     * 等待同一JVM内其他线程回源的最长时间（毫秒），超时后自行回源
+     */
+    @Value("${sunboat.cache.load-wait-millis:3000}")
+    private long loadWaitMillis;
+
+    /**
+     * 空值占位的缓存时间（毫秒），0表示不缓存空值；开启后该key只能通过本模板读取
+     */
+    @Value("${sunboat.cache.null-ttl-millis:0}")
+    private long nullTtlMillis;
+
+    @Value("${sunboat.cache.refresh-threads:4}")
+    private int refreshThreads;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Long> loadCostMillis = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    @PostConstruct
+    public void init() {
+        refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1024), new NamedThreadFactory("cache-refresh-", true),
+                new ThreadPoolExecutor.DiscardPolicy());
+        refreshExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 读取缓存，未命中时调用loader加载并写入缓存（仅JVM内合并并发回源）
+     */
+    public <T> T getOrLoad(String key, Supplier<T> loader, long timeout, TimeUnit unit) {
+        return getOrLoad(key, loader, timeout, unit, false);
+    }
+
+    /**
+     * 读取缓存，未命中时调用loader加载并写入缓存
+     * @param distributed 是否通过分布式锁合并集群内的并发回源
+     */
+    public <T> T getOrLoad(String key, Supplier<T> loader, long timeout, TimeUnit unit, boolean distributed) {
+        RedisTemplateUtils.ValueWithTtl<Object> cached = redisTemplateUtils.getStringWithTtl(key);
+        if (cached.getValue() != null) {
+            // 空值占位到期后自然重新回源，不参与提前刷新
+            if (!NULL_PLACEHOLDER.equals(cached.getValue()) && shouldRefreshEarly(key, cached.getTtlMillis())) {
+                refreshAsync(key, loader, timeout, unit, distributed);
+            }
+            return unwrap(cached.getValue());
+        }
+        if (LOADING_KEYS.get().contains(key)) {
+            throw new IllegalStateException("缓存回源过程中重入加载同一key：" + key);
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            Object value = await(key, existing);
+            // 等待超时，或等待的是未抢到锁的提前刷新任务（结果为空）时，自行回源
+            if (value != null) {
+                return unwrap(value);
+            }
+            return unwrap(distributed ? loadWithLock(key, loader, timeout, unit) : load(key, loader, timeout, unit));
+        }
+        try {
+            Object value = distributed ? loadWithLock(key, loader, timeout, unit) : load(key, loader, timeout, unit);
+            future.complete(value);
+            return unwrap(value);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 先经布隆过滤器判断，确定不存在的数据直接返回null，既不访问缓存也不回源
+     * @param bloomFilter 数据源全量key的布隆过滤器，新增数据时需同步调用{@link RedisBloomFilter#add}
+     * @param member 在布隆过滤器中的成员，通常为业务主键
+     */
+    public <T> T getOrLoad(String key, Supplier<T> loader, long timeout, TimeUnit unit, boolean distributed,
+                           RedisBloomFilter bloomFilter, String member) {
+        if (!bloomFilter.mightContain(member)) {
+            return null;
+        }
+        return getOrLoad(key, loader, timeout, unit, distributed);
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    /**
+     * XFetch：剩余TTL越短、回源越慢，越可能提前刷新
+     */
+    private boolean shouldRefreshEarly(String key, long ttlMillis) {
+        if (earlyRefreshBeta <= 0 || ttlMillis <= 0) {
+            return false;
+        }
+        long cost = loadCostMillis.getOrDefault(key, defaultLoadMillis);
+        double random = ThreadLocalRandom.current().nextDouble();
+        return -cost * earlyRefreshBeta * Math.log(random) >= ttlMillis;
+    }
+
+    private <T> void refreshAsync(String key, Supplier<T> loader, long timeout, TimeUnit unit, boolean distributed) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    future.complete(distributed ? refreshWithLock(key, loader, timeout, unit) : load(key, loader, timeout, unit));
+                } catch (Exception e) {
+                    log.warn("缓存提前刷新失败，key: {}, 异常: {}", key, e.getMessage());
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 提前刷新只尝试获取一次锁，获取失败说明其他节点正在刷新
+     */
+    private <T> Object refreshWithLock(String key, Supplier<T> loader, long timeout, TimeUnit unit) throws InterruptedException {
+        RLock lock = redissonUtils.getLock(LOAD_LOCK_PREFIX + key);
+        if (!lock.tryLock(0, lockLeaseMillis, TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        try {
+            return load(key, loader, timeout, unit);
+        } finally {
+            unlockQuietly(lock);
+        }
+    }
+
+    /**
+     * 获取分布式锁后二次检查缓存再回源；等锁超时则直接回源，优先保证可用性
+     */
+    private <T> Object loadWithLock(String key, Supplier<T> loader, long timeout, TimeUnit unit) {
+        RLock lock = redissonUtils.getLock(LOAD_LOCK_PREFIX + key);
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(lockWaitMillis, lockLeaseMillis, TimeUnit.MILLISECONDS);
+            Object cached = redisTemplateUtils.getString(key);
+            if (cached != null) {
+                return cached;
+            }
+            return load(key, loader, timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return load(key, loader, timeout, unit);
+        } finally {
+            if (locked) {
+                unlockQuietly(lock);
+            }
+        }
+    }
+
+    /**
+     * 回源并写入缓存，回源结果为null时返回空值占位
+     */
+    private <T> Object load(String key, Supplier<T> loader, long timeout, TimeUnit unit) {
+        Set<String> loadingKeys = LOADING_KEYS.get();
+        loadingKeys.add(key);
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = loader.get();
+        } finally {
+            loadingKeys.remove(key);
+        }
+        recordCost(key, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        try {
+            if (value != null) {
+                redisTemplateUtils.setString(key, value, timeout, unit);
+            } else if (nullTtlMillis > 0) {
+                redisTemplateUtils.setString(key, NULL_PLACEHOLDER, nullTtlMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (Exception e) {
+            log.warn("缓存回写失败，key: {}, 异常: {}", key, e.getMessage());
+        }
+        return value != null ? value : NULL_PLACEHOLDER;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T unwrap(Object value) {
+        return NULL_PLACEHOLDER.equals(value) ? null : (T) value;
+    }
+
+    private void recordCost(String key, long millis) {
+        if (loadCostMillis.size() >= MAX_COST_ENTRIES) {
+            loadCostMillis.clear();
+        }
+        loadCostMillis.put(key, Math.max(1, millis));
+    }
+
+    /**
+     * 等待其他线程的回源结果，超时或被中断时返回null
+     */
+    private Object await(String key, CompletableFuture<Object> future) {
+        try {
+            return future.get(loadWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("等待缓存回源超时，自行回源，key: {}", key);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private void unlockQuietly(RLock lock) {
+        try {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        } catch (Exception e) {
+            log.warn("释放缓存回源锁失败：{}", e.getMessage());
+        }
+    }
+}
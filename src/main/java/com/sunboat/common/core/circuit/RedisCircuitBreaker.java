@@ -0,0 +1,524 @@
+package com.sunboat.common.core.circuit;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Redis熔断器
+ * 按秒分桶统计最近window-seconds内的调用，失败率或慢调用率超过阈值时熔断（OPEN），
+ * 熔断期间调用快速失败；open-millis后进入半开状态（HALF_OPEN），放行half-open-calls个探测调用，
+ * 全部成功则恢复（CLOSED），任一失败则重新熔断。
+ * 只有Redis访问异常（DataAccessException）计为失败，序列化等调用方错误不影响熔断状态。
+ * 状态变更发布{@link RedisCircuitBreakerEvent}事件；容器中有MeterRegistry时发布sunboat.redis.circuit.*指标
+ */
+@Slf4j
+@Component
+public class RedisCircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 熔断期间写入、删除等不依赖返回值的写操作的处理策略（自增、GETSET等写操作始终快速失败）
+     */
+    public enum WritePolicy {
+        /**
+         * 抛出SERVICE_UNAVAILABLE业务异常
+         */
+        FAIL,
+        /**
+         * 丢弃写操作，返回类型默认值
+         */
+        DROP,
+        /**
+         * 暂存到本地队列，恢复后按顺序重放，返回类型默认值；队列满时丢弃
+         */
+        QUEUE
+    }
+
+    @Value("${sunboat.redis.circuit-breaker.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 失败率阈值（百分比）
+     */
+    @Value("${sunboat.redis.circuit-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    /**
+     * 慢调用率阈值（百分比）
+     */
+    @Value("${sunboat.redis.circuit-breaker.slow-call-rate-threshold:80}")
+    private int slowCallRateThreshold;
+
+    /**
+     * 慢调用耗时阈值（毫秒），应小于Redis命令超时时间
+     */
+    @Value("${sunboat.redis.circuit-breaker.slow-call-millis:500}")
+    private long slowCallMillis;
+
+    /**
+     * 统计窗口内的最少调用次数，低于该值不计算失败率
+     */
+    @Value("${sunboat.redis.circuit-breaker.minimum-calls:20}")
+    private int minimumCalls;
+
+    /**
+     * 统计窗口（秒）
+     */
+    @Value("${sunboat.redis.circuit-breaker.window-seconds:10}")
+    private int windowSeconds;
+
+    /**
+     * 熔断持续时间（毫秒），之后进入半开状态
+     */
+    @Value("${sunboat.redis.circuit-breaker.open-millis:5000}")
+    private long openMillis;
+
+    /**
+     * 半开状态放行的探测调用数
+     */
+    @Value("${sunboat.redis.circuit-breaker.half-open-calls:5}")
+    private int halfOpenCalls;
+
+    @Value("${sunboat.redis.circuit-breaker.write-policy:FAIL}")
+    private WritePolicy writePolicy;
+
+    /**
+     * QUEUE策略下暂存的最大写操作数
+     */
+    @Value("${sunboat.redis.circuit-breaker.write-queue-capacity:10000}")
+    private int writeQueueCapacity;
+
+    /**
+     * 降级读取近端缓存时允许的最大过期时长（毫秒），0表示不限制
+     */
+    @Value("${sunboat.redis.circuit-breaker.max-stale-millis:60000}")
+    private long maxStaleMillis;
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+    /**
+     * 熔断结束时间（nanoTime）
+     */
+    private volatile long openUntil;
+
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    private Bucket[] buckets;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder fallbackCount = new LongAdder();
+
+    private final LongAdder droppedWrites = new LongAdder();
+
+    private final Map<State, LongAdder> transitions = new EnumMap<>(State.class);
+
+    private final ThreadLocal<boolean[]> callFailed = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    private LinkedBlockingDeque<PendingWrite> writeQueue;
+
+    private final AtomicBoolean replaying = new AtomicBoolean();
+
+    private ScheduledExecutorService replayExecutor;
+
+    public RedisCircuitBreaker(ObjectProvider<MeterRegistry> registryProvider, ApplicationEventPublisher eventPublisher) {
+        this.registryProvider = registryProvider;
+        this.eventPublisher = eventPublisher;
+        for (State s : State.values()) {
+            transitions.put(s, new LongAdder());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        buckets = new Bucket[Math.max(1, windowSeconds)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+        writeQueue = new LinkedBlockingDeque<>(Math.max(1, writeQueueCapacity));
+        if (writePolicy == WritePolicy.QUEUE) {
+            replayExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("redis-circuit-", true));
+            long interval = Math.max(100, openMillis / 10);
+            replayExecutor.scheduleWithFixedDelay(this::replayWrites, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        registerMeters();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (replayExecutor != null) {
+            replayExecutor.shutdownNow();
+        }
+        if (writeQueue != null && !writeQueue.isEmpty()) {
+            log.warn("应用关闭时仍有{}个Redis写操作未重放，已丢弃", writeQueue.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public WritePolicy getWritePolicy() {
+        return writePolicy;
+    }
+
+    public long getMaxStaleMillis() {
+        return maxStaleMillis;
+    }
+
+    /**
+     * 熔断拒绝的调用次数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 熔断期间由近端缓存降级返回的读操作次数
+     */
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    /**
+     * 熔断期间丢弃的写操作次数
+     */
+    public long getDroppedWrites() {
+        return droppedWrites.sum();
+    }
+
+    /**
+     * 等待重放的写操作数
+     */
+    public int getQueuedWrites() {
+        return writeQueue == null ? 0 : writeQueue.size();
+    }
+
+    /**
+     * 申请一次调用许可，熔断中或半开状态探测名额已满时返回false
+     */
+    public boolean tryAcquire() {
+        if (acquire()) {
+            return true;
+        }
+        rejectedCount.increment();
+        return false;
+    }
+
+    /**
+     * 记录一次已放行调用的结果
+     * @param failed 是否因Redis访问异常失败
+     */
+    public void onResult(long durationNanos, boolean failed) {
+        boolean slow = slowCallMillis > 0 && durationNanos >= TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        State current = state.get();
+        if (current == State.CLOSED) {
+            Bucket bucket = currentBucket();
+            bucket.calls.increment();
+            if (failed) {
+                bucket.failures.increment();
+            }
+            if (slow) {
+                bucket.slowCalls.increment();
+            }
+            if (failed || slow) {
+                evaluate();
+            }
+        } else if (current == State.HALF_OPEN) {
+            if (failed || slow) {
+                transition(State.HALF_OPEN, State.OPEN, failed ? 100 : 0, slow ? 100 : 0);
+            } else if (halfOpenSuccesses.incrementAndGet() >= halfOpenCalls) {
+                transition(State.HALF_OPEN, State.CLOSED, 0, 0);
+            }
+        }
+        // OPEN：熔断前发出的调用结果不再统计
+    }
+
+    /**
+     * 开始一次调用，返回外层调用的失败标记以便嵌套调用结束后恢复
+     */
+    public boolean beginCall() {
+        boolean[] flag = callFailed.get();
+        boolean outer = flag[0];
+        flag[0] = false;
+        return outer;
+    }
+
+    /**
+     * 标记当前调用失败（用于工具类内部捕获并吞掉的异常），非Redis访问异常忽略
+     */
+    public void markFailure(Exception e) {
+        if (enabled && isRedisFailure(e)) {
+            callFailed.get()[0] = true;
+        }
+    }
+
+    /**
+     * 结束一次调用，返回本次调用是否被标记失败
+     * @param outer beginCall的返回值
+     */
+    public boolean endCall(boolean outer) {
+        boolean[] flag = callFailed.get();
+        boolean failed = flag[0];
+        flag[0] = outer;
+        return failed;
+    }
+
+    /**
+     * 记录一次降级读取
+     */
+    public void markFallback() {
+        fallbackCount.increment();
+    }
+
+    /**
+     * 记录一次丢弃的写操作
+     */
+    public void markDropped(String operation) {
+        droppedWrites.increment();
+        log.warn("Redis熔断中，写操作已丢弃 - 方法: {}", operation);
+    }
+
+    /**
+     * 暂存写操作，队列满时丢弃
+     * @param replay 重放动作，返回false表示因Redis访问异常失败，需保留在队列中稍后重试
+     */
+    public boolean enqueueWrite(String operation, BooleanSupplier replay) {
+        if (writeQueue.offerLast(new PendingWrite(operation, replay))) {
+            return true;
+        }
+        markDropped(operation);
+        return false;
+    }
+
+    /**
+     * 是否有等待重放的写操作（此时可暂存的写操作也需排队，保证写入顺序）
+     */
+    public boolean hasQueuedWrites() {
+        return writeQueue != null && !writeQueue.isEmpty();
+    }
+
+    /**
+     * 异常链中是否包含Redis访问异常
+     */
+    public static boolean isRedisFailure(Throwable e) {
+        for (int depth = 0; e != null && depth < 8; depth++, e = e.getCause()) {
+            if (e instanceof DataAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    private boolean acquire() {
+        while (true) {
+            State current = state.get();
+            if (current == State.CLOSED) {
+                return true;
+            }
+            if (current == State.OPEN) {
+                if (System.nanoTime() - openUntil < 0) {
+                    return false;
+                }
+                transition(State.OPEN, State.HALF_OPEN, 0, 0);
+                continue;
+            }
+            return halfOpenPermits.getAndDecrement() > 0;
+        }
+    }
+
+    private void evaluate() {
+        long second = currentSecond();
+        long calls = 0;
+        long failures = 0;
+        long slowCalls = 0;
+        for (Bucket bucket : buckets) {
+            if (second - bucket.second < buckets.length) {
+                calls += bucket.calls.sum();
+                failures += bucket.failures.sum();
+                slowCalls += bucket.slowCalls.sum();
+            }
+        }
+        if (calls < Math.max(1, minimumCalls)) {
+            return;
+        }
+        int failureRate = (int) (failures * 100 / calls);
+        int slowCallRate = (int) (slowCalls * 100 / calls);
+        if (failureRate >= failureRateThreshold || slowCallRate >= slowCallRateThreshold) {
+            transition(State.CLOSED, State.OPEN, failureRate, slowCallRate);
+        }
+    }
+
+    private boolean transition(State from, State to, int failureRate, int slowCallRate) {
+        if (to == State.OPEN) {
+            // 先于状态可见前设置，避免其他线程读到旧的结束时间直接进入半开
+            openUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(openMillis);
+        }
+        if (!state.compareAndSet(from, to)) {
+            return false;
+        }
+        if (to == State.HALF_OPEN) {
+            halfOpenSuccesses.set(0);
+            halfOpenPermits.set(Math.max(1, halfOpenCalls));
+        } else if (to == State.CLOSED) {
+            for (Bucket bucket : buckets) {
+                bucket.reset(-1);
+            }
+        }
+        transitions.get(to).increment();
+        if (to == State.OPEN) {
+            log.error("Redis熔断器打开 - 原状态: {}, 失败率: {}%, 慢调用率: {}%, 熔断时长: {}ms",
+                    from, failureRate, slowCallRate, openMillis);
+        } else {
+            log.warn("Redis熔断器状态变更 - {} -> {}", from, to);
+        }
+        try {
+            eventPublisher.publishEvent(new RedisCircuitBreakerEvent(this, from, to, failureRate, slowCallRate));
+        } catch (Exception e) {
+            log.warn("Redis熔断事件处理异常：{}", e.getMessage());
+        }
+        if (to == State.CLOSED && replayExecutor != null && hasQueuedWrites()) {
+            replayExecutor.execute(this::replayWrites);
+        }
+        return true;
+    }
+
+    /**
+     * 按顺序重放暂存的写操作，遇到Redis访问失败或熔断时停止，保留剩余操作
+     */
+    private void replayWrites() {
+        if (!replaying.compareAndSet(false, true)) {
+            return;
+        }
+        int replayed = 0;
+        try {
+            PendingWrite write;
+            // 非关闭状态时以队首写操作作为探测调用，没有业务流量时也能恢复
+            while ((write = writeQueue.peekFirst()) != null && acquire()) {
+                boolean done;
+                try {
+                    done = write.replay.getAsBoolean();
+                } catch (Exception e) {
+                    log.warn("Redis写操作重放异常，已丢弃 - 方法: {}, 异常: {}", write.operation, e.getMessage());
+                    done = true;
+                }
+                if (!done) {
+                    break;
+                }
+                writeQueue.pollFirst();
+                replayed++;
+            }
+        } finally {
+            replaying.set(false);
+            if (replayed > 0) {
+                log.info("Redis写操作重放完成 - 重放: {}, 剩余: {}", replayed, writeQueue.size());
+            }
+        }
+    }
+
+    private Bucket currentBucket() {
+        long second = currentSecond();
+        Bucket bucket = buckets[(int) (second % buckets.length)];
+        if (bucket.second != second) {
+            synchronized (bucket) {
+                if (bucket.second != second) {
+                    bucket.reset(second);
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private static long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    }
+
+    private void registerMeters() {
+        MeterRegistry registry = registryProvider.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        Gauge.builder("sunboat.redis.circuit.state", state, s -> s.get().ordinal())
+                .description("0=CLOSED, 1=OPEN, 2=HALF_OPEN")
+                .register(registry);
+        for (Map.Entry<State, LongAdder> entry : transitions.entrySet()) {
+            FunctionCounter.builder("sunboat.redis.circuit.transitions", entry.getValue(), LongAdder::sum)
+                    .tag("state", entry.getKey().name())
+                    .register(registry);
+        }
+        FunctionCounter.builder("sunboat.redis.circuit.rejected", rejectedCount, LongAdder::sum).register(registry);
+        FunctionCounter.builder("sunboat.redis.circuit.fallback", fallbackCount, LongAdder::sum).register(registry);
+        FunctionCounter.builder("sunboat.redis.circuit.writes.dropped", droppedWrites, LongAdder::sum).register(registry);
+        Gauge.builder("sunboat.redis.circuit.writes.queued", writeQueue, LinkedBlockingDeque::size).register(registry);
+    }
+
+    /**
+     * 一秒内的调用统计
+     */
+    private static class Bucket {
+        volatile long second = -1;
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder slowCalls = new LongAdder();
+
+        void reset(long second) {
+            calls.reset();
+            failures.reset();
+            slowCalls.reset();
+            this.second = second;
+        }
+    }
+
+    private static class PendingWrite {
+        final String operation;
+        final BooleanSupplier replay;
+
+        PendingWrite(String operation, BooleanSupplier replay) {
+            this.operation = operation;
+            this.replay = replay;
+        }
+    }
+}
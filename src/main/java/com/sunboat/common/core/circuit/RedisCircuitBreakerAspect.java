@@ -0,0 +1,276 @@
+package com.sunboat.common.core.circuit;
+
+import com.sunboat.common.core.cache.NearCache;
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.exception.BusinessException;
+import com.sunboat.common.core.metrics.RedisMetrics;
+import com.sunboat.common.core.utils.RedisBatchResult;
+import com.sunboat.common.core.utils.RedisTemplateUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * RedisTemplateUtils熔断切面
+ * 熔断期间读操作优先返回近端缓存中的旧值（需开启sunboat.redis.near-cache.enabled），否则返回与Redis异常时相同的默认值；
+ * 无返回值的写入和删除操作按write-policy快速失败、丢弃或暂存重放，暂存的写操作未重放完之前，同类写操作同样排队以保证顺序；
+ * 自增、GETSET等调用方依赖返回值的写操作始终快速失败，与Redis异常时的行为一致
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class RedisCircuitBreakerAspect {
+
+    /**
+     * 只读方法，其余公共方法均视为写操作
+     */
+    private static final Set<String> READ_METHODS = new HashSet<>(Arrays.asList(
+            "hasKey", "getKeyExpire", "getString", "getStringWithTtl", "getHash", "getHashAll",
+            "getListRange", "getSetAll", "isSetMember", "getZSetScore", "getZSetRange", "getZSetByScore",
+            "getZSetReverseByScore", "getZSetRangeWithScores", "getZSetReverseRangeWithScores", "getZSetRank",
+            "getZSetReverseRank", "getZSetSize", "multiGetString", "multiGetHash", "multiGetHashAll",
+            "multiGetZSetScore", "scanHash", "scanSet", "scanZSet", "scanKeys", "scanList"));
+
+    /**
+     * 可按write-policy丢弃或暂存的写操作（调用方不依赖其返回值），其余写操作熔断期间始终快速失败
+     */
+    private static final Set<String> DEFERRABLE_WRITE_METHODS = new HashSet<>(Arrays.asList(
+            "deleteKey", "deleteKeys", "expireKey", "setString", "setHash", "setHashBatch", "deleteHash",
+            "setListIndex", "deleteListElement", "deleteSetElements"));
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    @Around("execution(public * com.sunboat.common.core.utils.RedisTemplateUtils.*(..))")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!circuitBreaker.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        String operation = joinPoint.getSignature().getName();
+        boolean read = READ_METHODS.contains(operation);
+        boolean deferrable = DEFERRABLE_WRITE_METHODS.contains(operation);
+        if (deferrable && circuitBreaker.getWritePolicy() == RedisCircuitBreaker.WritePolicy.QUEUE
+                && circuitBreaker.hasQueuedWrites()) {
+            return enqueue(joinPoint, operation);
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            if (read) {
+                return fallbackRead(joinPoint, operation);
+            }
+            if (!deferrable) {
+                // 依赖返回值的写操作始终快速失败，避免调用方把默认值当作真实结果（如自增后的号段上限）
+                throw circuitOpen();
+            }
+            return rejectWrite(joinPoint, operation);
+        }
+        boolean outer = circuitBreaker.beginCall();
+        long start = System.nanoTime();
+        boolean thrown = false;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            thrown = RedisCircuitBreaker.isRedisFailure(e);
+            throw e;
+        } finally {
+            boolean failed = circuitBreaker.endCall(outer) || thrown;
+            // 带回调的遍历方法耗时包含业务处理，不计入慢调用
+            circuitBreaker.onResult(hasCallback(joinPoint.getArgs()) ? 0 : System.nanoTime() - start, failed);
+        }
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    /**
+     * 熔断期间的读操作：近端缓存命中旧值时返回旧值，否则返回默认值
+     */
+    @SuppressWarnings("unchecked")
+    private Object fallbackRead(ProceedingJoinPoint joinPoint, String operation) {
+        Object[] args = joinPoint.getArgs();
+        long maxStale = circuitBreaker.getMaxStaleMillis();
+        Object stale = null;
+        if ("getString".equals(operation)) {
+            stale = nearCache.getStaleString((String) args[0], maxStale);
+        } else if ("getHash".equals(operation)) {
+            stale = nearCache.getStaleHash((String) args[0], (String) args[1], maxStale);
+        } else if ("getHashAll".equals(operation)) {
+            stale = nearCache.getStaleHashAll((String) args[0], maxStale);
+        } else if ("multiGetString".equals(operation)) {
+            return fallbackMultiGet(new ArrayList<>((Collection<String>) args[0]), maxStale);
+        }
+        if (stale != null) {
+            circuitBreaker.markFallback();
+            return stale;
+        }
+        redisMetrics.markError();
+        return defaultValue(joinPoint, operation, true);
+    }
+
+    private RedisBatchResult<String, Object> fallbackMultiGet(List<String> keys, long maxStale) {
+        List<Object> values = new ArrayList<>(keys.size());
+        boolean hit = false;
+        for (String key : keys) {
+            Object value = nearCache.getStaleString(key, maxStale);
+            values.add(value);
+            hit |= value != null;
+        }
+        if (hit) {
+            circuitBreaker.markFallback();
+        } else {
+            redisMetrics.markError();
+        }
+        return RedisBatchResult.fallback(keys, values, circuitOpen());
+    }
+
+    /**
+     * 熔断期间可丢弃或暂存的写操作
+     */
+    private Object rejectWrite(ProceedingJoinPoint joinPoint, String operation) {
+        switch (circuitBreaker.getWritePolicy()) {
+            case QUEUE:
+                return enqueue(joinPoint, operation);
+            case DROP:
+                circuitBreaker.markDropped(operation);
+                invalidateLocal(joinPoint.getArgs());
+                redisMetrics.markError();
+                return defaultValue(joinPoint, operation, false);
+            default:
+                throw circuitOpen();
+        }
+    }
+
+    /**
+     * 暂存写操作，重放时绕过切面直接调用目标对象
+     */
+    private Object enqueue(ProceedingJoinPoint joinPoint, String operation) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object target = joinPoint.getTarget();
+        Object[] args = joinPoint.getArgs();
+        circuitBreaker.enqueueWrite(operation, () -> replay(method, target, args));
+        // 本地旧值不再可信，远端失效广播由重放时的写操作完成
+        invalidateLocal(args);
+        return defaultValue(joinPoint, operation, false);
+    }
+
+    /**
+     * 重放一次写操作，返回false表示因Redis访问异常失败
+     */
+    private boolean replay(Method method, Object target, Object[] args) {
+        boolean outer = circuitBreaker.beginCall();
+        long start = System.nanoTime();
+        boolean thrown = false;
+        boolean marked;
+        try {
+            method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            thrown = RedisCircuitBreaker.isRedisFailure(e.getCause());
+            if (!thrown) {
+                log.warn("Redis写操作重放失败，已丢弃 - 方法: {}, 异常: {}", method.getName(), e.getCause().getMessage());
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            marked = circuitBreaker.endCall(outer);
+        }
+        boolean failed = thrown || marked;
+        circuitBreaker.onResult(System.nanoTime() - start, failed);
+        return !failed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void invalidateLocal(Object[] args) {
+        if (!nearCache.isEnabled() || args.length == 0) {
+            return;
+        }
+        if (args[0] instanceof String) {
+            nearCache.invalidateLocal((String) args[0]);
+        } else if (args[0] instanceof Map) {
+            for (Object key : ((Map<?, ?>) args[0]).keySet()) {
+                nearCache.invalidateLocal(String.valueOf(key));
+            }
+        } else if (args[0] instanceof Collection) {
+            for (Object key : (Collection<Object>) args[0]) {
+                nearCache.invalidateLocal(String.valueOf(key));
+            }
+        }
+    }
+
+    /**
+     * 与RedisTemplateUtils中Redis异常时的返回值保持一致：读操作返回空值，可丢弃的写操作返回0/false
+     */
+    private Object defaultValue(ProceedingJoinPoint joinPoint, String operation, boolean read) {
+        Class<?> type = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (type == boolean.class || (type == Boolean.class && !read)) {
+            return false;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == Long.class) {
+            if ("getKeyExpire".equals(operation)) {
+                return -1L;
+            }
+            return read && !"getZSetSize".equals(operation) ? null : 0L;
+        }
+        if (type == Set.class) {
+            return Collections.emptySet();
+        }
+        if (type == List.class) {
+            return Collections.emptyList();
+        }
+        if (type == Map.class) {
+            return Collections.emptyMap();
+        }
+        if (type == Stream.class) {
+            return Stream.empty();
+        }
+        if (type == RedisTemplateUtils.ValueWithTtl.class) {
+            return new RedisTemplateUtils.ValueWithTtl<>(null, -2);
+        }
+        if (type == RedisBatchResult.class) {
+            return RedisBatchResult.fallback(batchKeys(joinPoint.getArgs()), null, circuitOpen());
+        }
+        return null;
+    }
+
+    /**
+     * 批量操作的key：第一个Collection参数或Map参数的keySet
+     */
+    private List<Object> batchKeys(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Collection) {
+                return new ArrayList<>((Collection<?>) arg);
+            }
+            if (arg instanceof Map) {
+                return new ArrayList<>(((Map<?, ?>) arg).keySet());
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private boolean hasCallback(Object[] args) {
+        return args.length > 0 && args[args.length - 1] instanceof Consumer;
+    }
+
+    private BusinessException circuitOpen() {
+        return new BusinessException(ResultCodeEnum.SERVICE_UNAVAILABLE, "Redis熔断中，请稍后重试");
+    }
+}
@@ -0,0 +1,36 @@
+package com.sunboat.common.core.circuit;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Redis熔断器状态变更事件（在触发状态变更的线程中同步发布，监听器不应执行耗时操作）
+ */
+@Getter
+public class RedisCircuitBreakerEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final RedisCircuitBreaker.State fromState;
+
+    private final RedisCircuitBreaker.State toState;
+
+    /**
+     * 触发熔断时统计窗口内的失败率（百分比），其他状态变更为0
+     */
+    private final int failureRate;
+
+    /**
+     * 触发熔断时统计窗口内的慢调用率（百分比），其他状态变更为0
+     */
+    private final int slowCallRate;
+
+    public RedisCircuitBreakerEvent(Object source, RedisCircuitBreaker.State fromState, RedisCircuitBreaker.State toState,
+                                    int failureRate, int slowCallRate) {
+        super(source);
+        this.fromState = fromState;
+        this.toState = toState;
+        this.failureRate = failureRate;
+        this.slowCallRate = slowCallRate;
+    }
+}
@@ -0,0 +1,209 @@
+package com.sunboat.common.core.counter;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.sunboat.common.core.utils.RedisBatchResult;
+import com.sunboat.common.core.utils.RedisTemplateUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 写缓冲计数器（Write-Behind）
+ * 计数先累加在本地LongAdder中（无锁），按时间间隔或缓冲key数量触发，以管道INCRBY批量写入Redis，
+ * 同一key在一个周期内的多次自增合并为一次写入；适用于浏览量、点赞数等允许短暂延迟的计数。
+ * 节点宕机时最多丢失一个刷新周期内的增量，可通过max-buffered-delta限制单key的最大未刷新量；
+ * 应用正常关闭时会刷新全部缓冲。写入失败的增量保留在本地，下个周期重试
+ */
+@Slf4j
+@Component
+public class BufferedCounter {
+
+    @Autowired
+    private RedisTemplateUtils redisTemplateUtils;
+
+    /**
+     * 刷新间隔（毫秒）
+     */
+    @Value("${sunboat.counter.flush-interval-millis:1000}")
+    private long flushIntervalMillis;
+
+    /**
+     * 缓冲的key数量达到该值时立即刷新
+     */
+    @Value("${sunboat.counter.max-pending-keys:10000}")
+    private int maxPendingKeys;
+
+    /**
+     * 单key未刷新增量的绝对值达到该值时立即刷新，0表示不限制
+     */
+    @Value("${sunboat.counter.max-buffered-delta:0}")
+    private long maxBufferedDelta;
+
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 上个周期移除的空闲计数器，下个周期再检查一次，避免移除瞬间并发写入的增量丢失
+     */
+    private Map<String, LongAdder> retired = new HashMap<>();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private ScheduledExecutorService flushExecutor;
+
+    @PostConstruct
+    public void init() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("counter-flush-", true));
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 关闭前将剩余缓冲全部写入（包括待复查的空闲计数器）
+        flush();
+        flush();
+    }
+
+    /**
+     * 计数加1
+     */
+    public void increment(String key) {
+        add(key, 1);
+    }
+
+    /**
+     * 计数增加delta（可为负数）
+     */
+    public void add(String key, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        LongAdder adder = pending.get(key);
+        if (adder == null) {
+            adder = pending.computeIfAbsent(key, k -> new LongAdder());
+            if (pending.size() >= maxPendingKeys) {
+                requestFlush();
+            }
+        }
+        adder.add(delta);
+        if (maxBufferedDelta > 0 && Math.abs(adder.sum()) >= maxBufferedDelta) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * 当前计数：Redis中的值加上本节点未刷新的增量（不含其他节点未刷新的增量）
+     */
+    public long get(String key) {
+        Object value = redisTemplateUtils.getString(key);
+        long base = value instanceof Number ? ((Number) value).longValue()
+                : value != null ? Long.parseLong(value.toString()) : 0;
+        return base + getPending(key);
+    }
+
+    /**
+     * 本节点未刷新的增量
+     */
+    public long getPending(String key) {
+        LongAdder adder = pending.get(key);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * 立即刷新全部缓冲（同步执行）
+     */
+    public synchronized void flush() {
+        Map<String, Long> deltas = new HashMap<>();
+        List<String> idle = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> entry : pending.entrySet()) {
+            long delta = entry.getValue().sum();
+            if (delta == 0) {
+                idle.add(entry.getKey());
+                continue;
+            }
+            // 扣减已读取的量而不是清零，读取之后并发累加的增量保留到下个周期
+            entry.getValue().add(-delta);
+            deltas.put(entry.getKey(), delta);
+        }
+        // 上个周期移除的计数器若又有增量，重新放回缓冲
+        for (Map.Entry<String, LongAdder> entry : retired.entrySet()) {
+            long leftover = entry.getValue().sum();
+            if (leftover != 0) {
+                entry.getValue().add(-leftover);
+                pending.computeIfAbsent(entry.getKey(), k -> new LongAdder()).add(leftover);
+            }
+        }
+        retired = new HashMap<>();
+        for (String key : idle) {
+            LongAdder adder = pending.get(key);
+            if (adder != null && pending.remove(key, adder)) {
+                retired.put(key, adder);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        RedisBatchResult<String, Long> result;
+        try {
+            result = redisTemplateUtils.multiIncrString(deltas);
+        } catch (Exception e) {
+            log.warn("计数刷新失败，{}个key保留到下次刷新，异常: {}", deltas.size(), e.getMessage());
+            restore(deltas, deltas.keySet());
+            return;
+        }
+        if (!result.getFailures().isEmpty()) {
+            log.warn("计数刷新部分失败，{}个key保留到下次刷新", result.getFailures().size());
+            restore(deltas, result.getFailures().keySet());
+        }
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    /**
+     * 写回未刷新成功的增量（不触发立即刷新，避免Redis不可用时反复重试）
+     */
+    private void restore(Map<String, Long> deltas, Iterable<String> keys) {
+        for (String key : keys) {
+            pending.computeIfAbsent(key, k -> new LongAdder()).add(deltas.get(key));
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("计数刷新异常：{}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.sunboat.common.core.delayqueue;
+
+import lombok.Getter;
+
+/**
+ * 延迟队列参数，未设置（为0，maxRetries为-1）的项使用全局配置sunboat.delay-queue.*
+ */
+@Getter
+public class DelayedQueueOptions {
+
+    /**
+     * 处理任务的线程数
+     */
+    private int workerThreads;
+
+    /**
+     * 每次轮询最多领取的任务数
+     */
+    private int batchSize;
+
+    /**
+     * 领取后的可见性超时（毫秒），超时未确认的任务重新投递
+     */
+    private long visibilityMillis;
+
+    /**
+     * 最长轮询间隔（毫秒），用于发现其他节点新投递的更早到期的任务
+     */
+    private long maxPollMillis;
+
+    /**
+     * 处理失败或超时后的最大重试次数，超出后进入死信集合
+     */
+    private int maxRetries = -1;
+
+    /**
+     * 重试退避基数（毫秒），第n次重试延迟n倍
+     */
+    private long retryBackoffMillis;
+
+    public static DelayedQueueOptions defaults() {
+        return new DelayedQueueOptions();
+    }
+
+    public DelayedQueueOptions workerThreads(int workerThreads) {
+        this.workerThreads = Math.max(0, workerThreads);
+        return this;
+    }
+
+    public DelayedQueueOptions batchSize(int batchSize) {
+        this.batchSize = Math.max(0, batchSize);
+        return this;
+    }
+
+    public DelayedQueueOptions visibilityMillis(long visibilityMillis) {
+        this.visibilityMillis = Math.max(0, visibilityMillis);
+        return this;
+    }
+
+    public DelayedQueueOptions maxPollMillis(long maxPollMillis) {
+        this.maxPollMillis = Math.max(0, maxPollMillis);
+        return this;
+    }
+
+    public DelayedQueueOptions maxRetries(int maxRetries) {
+        this.maxRetries = Math.max(-1, maxRetries);
+        return this;
+    }
+
+    public DelayedQueueOptions retryBackoffMillis(long retryBackoffMillis) {
+        this.retryBackoffMillis = Math.max(0, retryBackoffMillis);
+        return this;
+    }
+
+    /**
+     * 用defaults补全未设置的项，返回新实例
+     */
+    DelayedQueueOptions withDefaults(DelayedQueueOptions defaults) {
+        DelayedQueueOptions resolved = new DelayedQueueOptions();
+        resolved.workerThreads = workerThreads > 0 ? workerThreads : defaults.workerThreads;
+        resolved.batchSize = batchSize > 0 ? batchSize : defaults.batchSize;
+        resolved.visibilityMillis = visibilityMillis > 0 ? visibilityMillis : defaults.visibilityMillis;
+        resolved.maxPollMillis = maxPollMillis > 0 ? maxPollMillis : defaults.maxPollMillis;
+        resolved.maxRetries = maxRetries >= 0 ? maxRetries : defaults.maxRetries;
+        resolved.retryBackoffMillis = retryBackoffMillis > 0 ? retryBackoffMillis : defaults.retryBackoffMillis;
+        return resolved;
+    }
+}
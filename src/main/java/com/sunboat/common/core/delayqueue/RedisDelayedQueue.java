@@ -0,0 +1,426 @@
+package com.sunboat.common.core.delayqueue;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.IdUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sunboat.common.core.utils.RedisKeyUtils;
+import com.sunboat.common.core.utils.RedisTemplateUtils;
+import com.sunboat.common.core.utils.RedissonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 基于Redis ZSet的延迟队列
+ * 待执行任务按到期时间存于pending集合，轮询时由Lua脚本原子地领取最多batchSize个到期任务并移入processing集合，
+ * 集群内同一任务只会被一个节点领取；处理成功后批量确认删除，失败按退避重新入队，超过最大重试次数进入dead集合。
+ * 领取后超过可见性超时仍未确认（节点宕机等）的任务在下次轮询时重新投递，因此处理逻辑需幂等（至少一次语义）。
+ * 轮询间隔自适应：有积压时连续领取，否则休眠到下一个任务的到期时间（不超过maxPollMillis），本节点投递更早到期的任务时立即唤醒。
+ * 所有key使用{name}哈希标签，集群模式下位于同一slot
+ */
+@Slf4j
+public class RedisDelayedQueue<T> {
+
+    private static final String KEY_PREFIX = "sunboat:delay-queue:";
+
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String NOW =
+            "local t = redis.call('TIME') local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) ";
+
+    /**
+     * 投递：KEYS pending、jobs；ARGV 任务ID、内容、延迟毫秒、绝对到期时间（小于0表示按延迟计算）
+     */
+    private static final String OFFER_SCRIPT = NOW
+            + "local due = tonumber(ARGV[4]) "
+            + "if due < 0 then due = now + tonumber(ARGV[3]) end "
+            + "redis.call('HSET', KEYS[2], ARGV[1], ARGV[2]) "
+            + "redis.call('ZADD', KEYS[1], due, ARGV[1]) "
+            + "return due";
+
+    /**
+     * 领取：KEYS pending、processing、jobs、attempts、dead；ARGV 数量、可见性超时、最大重试次数
+     * 先将可见性超时的任务重新放回pending（超过最大重试次数的进入dead），再领取到期任务。
+     * 返回 {距下一个任务到期的毫秒数（-1表示队列为空）, id1, payload1, id2, payload2, ...}
+     */
+    private static final String CLAIM_SCRIPT = NOW
+            + "local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', now, 'LIMIT', 0, 1000) "
+            + "for _, id in ipairs(expired) do "
+            + "  redis.call('ZREM', KEYS[2], id) "
+            + "  if redis.call('HINCRBY', KEYS[4], id, 1) > tonumber(ARGV[3]) then "
+            + "    redis.call('ZADD', KEYS[5], now, id) "
+            + "  else redis.call('ZADD', KEYS[1], now, id) end "
+            + "end "
+            + "local limit = tonumber(ARGV[1]) "
+            + "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now, 'LIMIT', 0, limit) "
+            + "local result = {} "
+            + "if #ids > 0 then "
+            + "  redis.call('ZREM', KEYS[1], unpack(ids)) "
+            + "  local deadline = now + tonumber(ARGV[2]) "
+            + "  local args = {} "
+            + "  for i, id in ipairs(ids) do args[2 * i - 1] = deadline args[2 * i] = id end "
+            + "  redis.call('ZADD', KEYS[2], unpack(args)) "
+            + "  local payloads = redis.call('HMGET', KEYS[3], unpack(ids)) "
+            + "  for i, id in ipairs(ids) do result[2 * i] = id result[2 * i + 1] = payloads[i] end "
+            + "end "
+            + "if #ids >= limit then result[1] = 0 else "
+            + "  local head = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES') "
+            + "  if #head == 0 then result[1] = -1 else result[1] = math.max(0, tonumber(head[2]) - now) end "
+            + "end "
+            + "return result";
+
+    /**
+     * 确认：KEYS processing、jobs、attempts；ARGV 任务ID列表
+     */
+    private static final String ACK_SCRIPT =
+            "redis.call('ZREM', KEYS[1], unpack(ARGV)) "
+                    + "redis.call('HDEL', KEYS[2], unpack(ARGV)) "
+                    + "redis.call('HDEL', KEYS[3], unpack(ARGV)) "
+                    + "return #ARGV";
+
+    /**
+     * 重试：KEYS processing、pending、attempts、dead；ARGV 任务ID、最大重试次数、退避基数
+     * 返回 -1：任务已不在processing中（已超时重新投递）；0：进入dead；大于0：第n次重试
+     */
+    private static final String RETRY_SCRIPT = NOW
+            + "if redis.call('ZREM', KEYS[1], ARGV[1]) == 0 then return -1 end "
+            + "local n = redis.call('HINCRBY', KEYS[3], ARGV[1], 1) "
+            + "if n > tonumber(ARGV[2]) then redis.call('ZADD', KEYS[4], now, ARGV[1]) return 0 end "
+            + "redis.call('ZADD', KEYS[2], now + tonumber(ARGV[3]) * n, ARGV[1]) "
+            + "return n";
+
+    /**
+     * 取消：KEYS pending、jobs；ARGV 任务ID
+     */
+    private static final String CANCEL_SCRIPT =
+            "if redis.call('ZREM', KEYS[1], ARGV[1]) == 0 then return 0 end "
+                    + "redis.call('HDEL', KEYS[2], ARGV[1]) "
+                    + "return 1";
+
+    private final String name;
+
+    private final Class<T> type;
+
+    private final Consumer<T> handler;
+
+    private final DelayedQueueOptions options;
+
+    private final RedissonUtils redissonUtils;
+
+    private final RedisTemplateUtils redisTemplateUtils;
+
+    private final ObjectMapper objectMapper;
+
+    private final String pendingKey;
+
+    private final String processingKey;
+
+    private final String jobsKey;
+
+    private final String attemptsKey;
+
+    private final String deadKey;
+
+    /**
+     * 已领取未处理完的任务数上限，避免领取过多任务在本地排队而超过可见性超时
+     */
+    private final Semaphore inFlight;
+
+    private final BlockingQueue<String> pendingAcks = new LinkedBlockingQueue<>();
+
+    private final Object wakeup = new Object();
+
+    /**
+     * 轮询线程计划的下次唤醒时间
+     */
+    private volatile long nextPollAt;
+
+    private volatile boolean running;
+
+    private ThreadPoolExecutor workers;
+
+    private Thread poller;
+
+    private Thread acker;
+
+    RedisDelayedQueue(String name, Class<T> type, Consumer<T> handler, DelayedQueueOptions options,
+                      RedissonUtils redissonUtils, RedisTemplateUtils redisTemplateUtils, ObjectMapper objectMapper) {
+        this.name = name;
+        this.type = type;
+        this.handler = handler;
+        this.options = options;
+        this.redissonUtils = redissonUtils;
+        this.redisTemplateUtils = redisTemplateUtils;
+        this.objectMapper = objectMapper;
+        String prefix = RedisKeyUtils.taggedKey(KEY_PREFIX, name) + ":";
+        this.pendingKey = prefix + "pending";
+        this.processingKey = prefix + "processing";
+        this.jobsKey = prefix + "jobs";
+        this.attemptsKey = prefix + "attempts";
+        this.deadKey = prefix + "dead";
+        this.inFlight = new Semaphore(options.getWorkerThreads() * 2);
+    }
+
+    /**
+     * 投递延迟任务（以Redis服务器时间计算到期时间）
+     * @return 任务ID，可用于取消
+     */
+    public String offer(T payload, long delay, TimeUnit unit) {
+        long delayMillis = Math.max(0, unit.toMillis(delay));
+        String id = offer(payload, delayMillis, -1);
+        if (System.currentTimeMillis() + delayMillis < nextPollAt) {
+            wakeUp();
+        }
+        return id;
+    }
+
+    /**
+     * 投递在指定时间点执行的任务
+     * @param dueMillis 到期时间戳（毫秒）
+     */
+    public String offerAt(T payload, long dueMillis) {
+        String id = offer(payload, 0, Math.max(0, dueMillis));
+        if (dueMillis < nextPollAt) {
+            wakeUp();
+        }
+        return id;
+    }
+
+    /**
+     * 取消尚未被领取的任务
+     * @return 是否取消成功，任务已被领取或不存在时返回false
+     */
+    public boolean cancel(String jobId) {
+        Long removed = redissonUtils.evalScript(Arrays.<Object>asList(pendingKey, jobsKey), CANCEL_SCRIPT,
+                RScript.ReturnType.INTEGER, jobId);
+        return removed != null && removed == 1;
+    }
+
+    /**
+     * 待执行（含未到期）的任务数
+     */
+    public long pendingSize() {
+        return redisTemplateUtils.getZSetSize(pendingKey);
+    }
+
+    /**
+     * 已领取未确认的任务数
+     */
+    public long processingSize() {
+        return redisTemplateUtils.getZSetSize(processingKey);
+    }
+
+    /**
+     * 死信任务数
+     */
+    public long deadSize() {
+        return redisTemplateUtils.getZSetSize(deadKey);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 启动轮询与处理线程，无handler的队列只用于投递
+     */
+    synchronized void start() {
+        if (running || handler == null) {
+            return;
+        }
+        running = true;
+        workers = new ThreadPoolExecutor(options.getWorkerThreads(), options.getWorkerThreads(), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory("delay-queue-" + name + "-", true));
+        poller = new Thread(this::pollLoop, "delay-queue-poller-" + name);
+        poller.setDaemon(true);
+        poller.start();
+        acker = new Thread(this::ackLoop, "delay-queue-acker-" + name);
+        acker.setDaemon(true);
+        acker.start();
+    }
+
+    /**
+     * 停止领取新任务，等待已领取的任务处理完毕并确认；超时未完成的任务在可见性超时后由其他节点重新处理
+     */
+    synchronized void stop(long timeoutMillis) {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeUp();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            poller.join(Math.max(1, timeoutMillis));
+            workers.shutdown();
+            workers.awaitTermination(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            acker.join(Math.max(1, deadline - System.currentTimeMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    private String offer(T payload, long delayMillis, long dueMillis) {
+        String id = IdUtil.fastSimpleUUID();
+        try {
+            redissonUtils.evalScript(Arrays.<Object>asList(pendingKey, jobsKey), OFFER_SCRIPT, RScript.ReturnType.INTEGER,
+                    id, objectMapper.writeValueAsString(payload), String.valueOf(delayMillis), String.valueOf(dueMillis));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("延迟任务序列化失败", e);
+        }
+        return id;
+    }
+
+    private void pollLoop() {
+        int batchSize = Math.min(options.getBatchSize(), MAX_BATCH_SIZE);
+        while (running) {
+            int permits = 0;
+            try {
+                permits = acquirePermits(batchSize);
+                if (permits == 0) {
+                    continue;
+                }
+                List<Object> result = redissonUtils.evalScript(
+                        Arrays.<Object>asList(pendingKey, processingKey, jobsKey, attemptsKey, deadKey), CLAIM_SCRIPT,
+                        RScript.ReturnType.MULTI, String.valueOf(permits), String.valueOf(options.getVisibilityMillis()),
+                        String.valueOf(options.getMaxRetries()));
+                permits -= dispatch(result);
+                inFlight.release(permits);
+                permits = 0;
+                long nextDelay = ((Number) result.get(0)).longValue();
+                if (nextDelay != 0) {
+                    await(nextDelay < 0 ? options.getMaxPollMillis() : Math.min(nextDelay, options.getMaxPollMillis()));
+                }
+            } catch (Exception e) {
+                inFlight.release(permits);
+                log.warn("延迟队列轮询失败 - Queue: {}, 异常: {}", name, e.getMessage());
+                await(options.getMaxPollMillis());
+            }
+        }
+    }
+
+    /**
+     * 等待至少一个处理名额，并尽量多取（不超过batchSize）
+     */
+    private int acquirePermits(int batchSize) throws InterruptedException {
+        if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+            return 0;
+        }
+        int permits = 1 + inFlight.drainPermits();
+        if (permits > batchSize) {
+            inFlight.release(permits - batchSize);
+            permits = batchSize;
+        }
+        return permits;
+    }
+
+    /**
+     * 将领取到的任务交给处理线程，返回占用的名额数
+     */
+    private int dispatch(List<Object> result) {
+        int dispatched = 0;
+        for (int i = 1; i + 1 < result.size(); i += 2) {
+            String id = (String) result.get(i);
+            String payload = (String) result.get(i + 1);
+            if (payload == null) {
+                // 任务内容已不存在，直接确认
+                pendingAcks.add(id);
+                continue;
+            }
+            try {
+                workers.execute(() -> process(id, payload));
+                dispatched++;
+            } catch (RejectedExecutionException e) {
+                log.warn("延迟队列已停止，任务等待重新投递 - Queue: {}, JobId: {}", name, id);
+            }
+        }
+        return dispatched;
+    }
+
+    private void process(String id, String payload) {
+        try {
+            handler.accept(objectMapper.readValue(payload, type));
+            pendingAcks.add(id);
+        } catch (Exception e) {
+            log.warn("延迟任务处理失败 - Queue: {}, JobId: {}, 异常: {}", name, id, e.getMessage());
+            retry(id);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private void retry(String id) {
+        try {
+            Long attempt = redissonUtils.evalScript(Arrays.<Object>asList(processingKey, pendingKey, attemptsKey, deadKey),
+                    RETRY_SCRIPT, RScript.ReturnType.INTEGER, id, String.valueOf(options.getMaxRetries()),
+                    String.valueOf(options.getRetryBackoffMillis()));
+            if (attempt != null && attempt == 0) {
+                log.error("延迟任务超过最大重试次数，已转入死信 - Queue: {}, JobId: {}", name, id);
+            }
+        } catch (Exception e) {
+            log.warn("延迟任务重试入队失败，等待可见性超时后重新投递 - Queue: {}, JobId: {}, 异常: {}", name, id, e.getMessage());
+        }
+    }
+
+    /**
+     * 批量确认已处理的任务，停止后处理完剩余确认再退出
+     */
+    private void ackLoop() {
+        List<String> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !pendingAcks.isEmpty() || !workers.isTerminated()) {
+            try {
+                String first = pendingAcks.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pendingAcks.drainTo(batch, MAX_BATCH_SIZE - 1);
+                redissonUtils.evalScript(Arrays.<Object>asList(processingKey, jobsKey, attemptsKey), ACK_SCRIPT,
+                        RScript.ReturnType.INTEGER, batch.toArray());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("延迟任务确认失败，{}个任务将在可见性超时后重新投递 - Queue: {}, 异常: {}", batch.size(), name, e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void await(long millis) {
+        synchronized (wakeup) {
+            if (!running) {
+                return;
+            }
+            nextPollAt = System.currentTimeMillis() + millis;
+            try {
+                wakeup.wait(Math.max(1, millis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                nextPollAt = 0;
+            }
+        }
+    }
+
+    private void wakeUp() {
+        synchronized (wakeup) {
+            wakeup.notifyAll();
+        }
+    }
+}
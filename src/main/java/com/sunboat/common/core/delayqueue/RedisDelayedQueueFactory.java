@@ -0,0 +1,116 @@
+package com.sunboat.common.core.delayqueue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sunboat.common.core.utils.RedisTemplateUtils;
+import com.sunboat.common.core.utils.RedissonUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 延迟队列工厂
+ * 同名队列在本节点只创建一次，应用关闭时停止所有队列
+ */
+@Component
+public class RedisDelayedQueueFactory {
+
+    @Autowired
+    private RedissonUtils redissonUtils;
+
+    @Autowired
+    private RedisTemplateUtils redisTemplateUtils;
+
+    @Autowired(required = false)
+    private ObjectMapper objectMapper;
+
+    @Value("${sunboat.delay-queue.worker-threads:8}")
+    private int workerThreads;
+
+    @Value("${sunboat.delay-queue.batch-size:100}")
+    private int batchSize;
+
+    @Value("${sunboat.delay-queue.visibility-millis:30000}")
+    private long visibilityMillis;
+
+    @Value("${sunboat.delay-queue.max-poll-millis:1000}")
+    private long maxPollMillis;
+
+    @Value("${sunboat.delay-queue.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${sunboat.delay-queue.retry-backoff-millis:1000}")
+    private long retryBackoffMillis;
+
+    /**
+     * 关闭时等待已领取任务处理完毕的最长时间（毫秒）
+     */
+    @Value("${sunboat.delay-queue.shutdown-timeout-millis:10000}")
+    private long shutdownTimeoutMillis;
+
+    private final Map<String, RedisDelayedQueue<?>> queues = new ConcurrentHashMap<>();
+
+    private DelayedQueueOptions defaults;
+
+    @PostConstruct
+    public void init() {
+        if (objectMapper == null) {
+            objectMapper = new ObjectMapper().findAndRegisterModules();
+        }
+        defaults = DelayedQueueOptions.defaults()
+                .workerThreads(Math.max(1, workerThreads))
+                .batchSize(Math.max(1, batchSize))
+                .visibilityMillis(Math.max(1, visibilityMillis))
+                .maxPollMillis(Math.max(1, maxPollMillis))
+                .maxRetries(Math.max(0, maxRetries))
+                .retryBackoffMillis(retryBackoffMillis);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (RedisDelayedQueue<?> queue : queues.values()) {
+            queue.stop(shutdownTimeoutMillis);
+        }
+    }
+
+    /**
+     * 创建并启动消费队列（使用全局配置）
+     * @param name 队列名称
+     * @param type 任务内容类型，按JSON序列化
+     * @param handler 任务处理逻辑，抛出异常时按退避重试；需保证幂等
+     */
+    public <T> RedisDelayedQueue<T> create(String name, Class<T> type, Consumer<T> handler) {
+        return create(name, type, handler, DelayedQueueOptions.defaults());
+    }
+
+    /**
+     * 创建并启动消费队列
+     */
+    public <T> RedisDelayedQueue<T> create(String name, Class<T> type, Consumer<T> handler, DelayedQueueOptions options) {
+        RedisDelayedQueue<T> queue = new RedisDelayedQueue<>(name, type, handler, options.withDefaults(defaults),
+                redissonUtils, redisTemplateUtils, objectMapper);
+        if (queues.putIfAbsent(name, queue) != null) {
+            throw new IllegalStateException("延迟队列已存在：" + name);
+        }
+        queue.start();
+        return queue;
+    }
+
+    /**
+     * 获取只用于投递的队列（不消费）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RedisDelayedQueue<T> producer(String name, Class<T> type) {
+        RedisDelayedQueue<?> existing = queues.get(name);
+        if (existing != null) {
+            return (RedisDelayedQueue<T>) existing;
+        }
+        return (RedisDelayedQueue<T>) queues.computeIfAbsent(name, k -> new RedisDelayedQueue<>(name, type, null,
+                defaults, redissonUtils, redisTemplateUtils, objectMapper));
+    }
+}
@@ -2,6 +2,9 @@ package com.sunboat.common.core.enums;
 
 import lombok.Getter;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 返回状态码枚举
  */
@@ -16,6 +19,7 @@ public enum ResultCodeEnum {
     FORBIDDEN(403, "禁止访问"),
     NOT_FOUND(404, "资源不存在"),
     METHOD_NOT_ALLOWED(405, "请求方法不支持"),
+    TOO_MANY_REQUESTS(429, "请求过于频繁，请稍后再试"),
     
     // 服务器错误
     INTERNAL_SERVER_ERROR(500, "服务器内部错误"),
@@ -24,7 +28,9 @@ public enum ResultCodeEnum {
     // 业务错误
     BUSINESS_ERROR(1000, "业务逻辑错误"),
     DATA_VALIDATION_ERROR(1001, "数据验证失败"),
-    DB_ERROR(1002, "数据库操作错误");
+    DB_ERROR(1002, "数据库操作错误"),
+    LOCK_ACQUIRE_FAILED(1003, "操作处理中，请稍后重试"),
+    MQ_PUBLISH_FAILED(1004, "消息发送失败，请稍后重试");
 
     /**
      * 状态码
@@ -36,9 +42,26 @@ public enum ResultCodeEnum {
      */
     private final String message;
 
+    private static final Map<Integer, ResultCodeEnum> CODE_MAP = new HashMap<>();
+
+    static {
+        for (ResultCodeEnum resultCode : values()) {
+            CODE_MAP.put(resultCode.code, resultCode);
+        }
+    }
+
     ResultCodeEnum(int code, String message) {
         this.code = code;
         this.message = message;
     }
+
+    /**
+     * 根据状态码获取枚举
+     * @param code 状态码
+     * @return 对应的枚举，不存在时返回null
+     */
+    public static ResultCodeEnum fromCode(int code) {
+        return CODE_MAP.get(code);
+    }
 }
     
\ No newline at end of file
@@ -3,13 +3,38 @@ package com.sunboat.common.core.exception;
 import com.sunboat.common.core.enums.ResultCodeEnum;
 import lombok.Getter;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * 自定义业务异常
+ * 业务异常用于正常的流程控制，默认不采集堆栈；可全局或按错误码开启（排查问题时使用）
  */
 @Getter
 public class BusinessException extends RuntimeException {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * 是否采集堆栈（全局开关）
+     */
+    private static volatile boolean stackTraceEnabled = false;
+
+    /**
+     * 按错误码覆盖全局开关
+     */
+    private static final Map<Integer, Boolean> STACK_TRACE_OVERRIDES = new ConcurrentHashMap<>();
+
+    /**
+     * 预创建的固定信息实例，按枚举序号索引
+     */
+    private static final BusinessException[] CACHED = new BusinessException[ResultCodeEnum.values().length];
+
+    static {
+        for (ResultCodeEnum resultCode : ResultCodeEnum.values()) {
+            CACHED[resultCode.ordinal()] = new BusinessException(resultCode.getCode(), resultCode.getMessage(), true);
+        }
+    }
+
     /**
      * 错误码
      */
@@ -20,6 +45,11 @@ public class BusinessException extends RuntimeException {
      */
     private final String message;
 
+    /**
+     * 是否已完成构造：父类构造方法调用fillInStackTrace时错误码尚未赋值，此时跳过采集
+     */
+    private transient boolean initialized;
+
     /**
      * 构造方法
      * @param code 错误码
@@ -29,6 +59,22 @@ public class BusinessException extends RuntimeException {
         super(message);
         this.code = code;
         this.message = message;
+        initialized = true;
+        fillInStackTrace();
+    }
+
+    /**
+     * 构造方法
+     * @param code 错误码
+     * @param message 错误信息
+     * @param cause 原始异常
+     */
+    public BusinessException(int code, String message, Throwable cause) {
+        super(message, cause);
+        this.code = code;
+        this.message = message;
+        initialized = true;
+        fillInStackTrace();
     }
 
     /**
@@ -36,9 +82,7 @@ public class BusinessException extends RuntimeException {
      * @param resultCode 错误码枚举
      */
     public BusinessException(ResultCodeEnum resultCode) {
-        super(resultCode.getMessage());
-        this.code = resultCode.getCode();
-        this.message = resultCode.getMessage();
+        this(resultCode.getCode(), resultCode.getMessage());
     }
 
     /**
@@ -47,9 +91,91 @@ public class BusinessException extends RuntimeException {
      * @param message 错误信息
      */
     public BusinessException(ResultCodeEnum resultCode, String message) {
-        super(message);
-        this.code = resultCode.getCode();
+        this(resultCode.getCode(), message);
+    }
+
+    /**
+     * 构造方法
+     * @param resultCode 错误码枚举
+     * @param cause 原始异常
+     */
+    public BusinessException(ResultCodeEnum resultCode, Throwable cause) {
+        this(resultCode.getCode(), resultCode.getMessage(), cause);
+    }
+
+    /**
+     * 构造方法
+     * @param resultCode 错误码枚举
+     * @param message 错误信息
+     * @param cause 原始异常
+     */
+    public BusinessException(ResultCodeEnum resultCode, String message, Throwable cause) {
+        this(resultCode.getCode(), message, cause);
+    }
+
+    /**
+     * 共享实例：无堆栈、不可追加suppressed异常、不可设置cause
+     */
+    private BusinessException(int code, String message, boolean shared) {
+        super(message, null, false, false);
+        this.code = code;
         this.message = message;
     }
+
+    /**
+     * 按错误码决定是否采集堆栈
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        if (initialized && isStackTraceEnabled(code)) {
+            return super.fillInStackTrace();
+        }
+        return this;
+    }
+
+    /**
+     * 获取固定信息的业务异常，优先返回预创建的共享实例（无需每次创建对象）
+     * 该错误码开启堆栈采集时返回新实例
+     * @param resultCode 错误码枚举
+     */
+    public static BusinessException of(ResultCodeEnum resultCode) {
+        if (isStackTraceEnabled(resultCode.getCode())) {
+            return new BusinessException(resultCode);
+        }
+        return CACHED[resultCode.ordinal()];
+    }
+
+    /**
+     * 设置是否采集堆栈（全局开关）
+     */
+    public static void setStackTraceEnabled(boolean enabled) {
+        stackTraceEnabled = enabled;
+    }
+
+    /**
+     * 按错误码设置是否采集堆栈，优先于全局开关
+     */
+    public static void setStackTraceEnabled(ResultCodeEnum resultCode, boolean enabled) {
+        STACK_TRACE_OVERRIDES.put(resultCode.getCode(), enabled);
+    }
+
+    /**
+     * 清除按错误码的设置
+     */
+    public static void clearStackTraceOverrides() {
+        STACK_TRACE_OVERRIDES.clear();
+    }
+
+    /**
+     * 指定错误码是否采集堆栈
+     */
+    public static boolean isStackTraceEnabled(int code) {
+        if (!STACK_TRACE_OVERRIDES.isEmpty()) {
+            Boolean override = STACK_TRACE_OVERRIDES.get(code);
+            if (override != null) {
+                return override;
+            }
+        }
+        return stackTraceEnabled;
+    }
 }
-    
\ No newline at end of file
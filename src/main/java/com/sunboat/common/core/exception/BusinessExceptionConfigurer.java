@@ -0,0 +1,41 @@
+package com.sunboat.common.core.exception;
+
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * 业务异常堆栈采集配置
+ * sunboat.exception.stack-trace-enabled：全局开关，排查问题时临时开启
+ * sunboat.exception.stack-trace-codes：单独开启堆栈的错误码枚举名，如 INTERNAL_SERVER_ERROR,DB_ERROR
+ */
+@Slf4j
+@Component
+public class BusinessExceptionConfigurer {
+
+    @Value("${sunboat.exception.stack-trace-enabled:false}")
+    private boolean stackTraceEnabled;
+
+    @Value("${sunboat.exception.stack-trace-codes:}")
+    private List<String> stackTraceCodes;
+
+    @PostConstruct
+    public void init() {
+        BusinessException.setStackTraceEnabled(stackTraceEnabled);
+        BusinessException.clearStackTraceOverrides();
+        for (String name : stackTraceCodes) {
+            if (name.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                BusinessException.setStackTraceEnabled(ResultCodeEnum.valueOf(name.trim()), true);
+            } catch (IllegalArgumentException e) {
+                log.warn("未知的错误码枚举：{}，已忽略", name);
+            }
+        }
+    }
+}
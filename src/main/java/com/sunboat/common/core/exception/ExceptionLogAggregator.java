@@ -0,0 +1,133 @@
+package com.sunboat.common.core.exception;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异常日志聚合
+ * 同一接口、同一异常类型与错误码在一个时间窗口内只完整记录第一次，其余仅计数，
+ * 窗口结束时输出一行汇总，避免异常高峰时日志I/O成为瓶颈
+ */
+@Slf4j
+@Component
+public class ExceptionLogAggregator {
+
+    @Value("${sunboat.exception.log.aggregate-enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 汇总窗口（秒）
+     */
+    @Value("${sunboat.exception.log.window-seconds:60}")
+    private long windowSeconds;
+
+    /**
+     * 同时跟踪的异常签名数量上限，超出后新签名只计数不记录
+     */
+    @Value("${sunboat.exception.log.max-signatures:1000}")
+    private int maxSignatures;
+
+    private final Map<String, Signature> signatures = new ConcurrentHashMap<>();
+
+    /**
+     * 因超出签名上限而未记录的次数
+     */
+    private final LongAdder overflowCount = new LongAdder();
+
+    private ScheduledExecutorService flushExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("exception-log-", true));
+        flushExecutor.scheduleWithFixedDelay(this::flush, windowSeconds, windowSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+            flush();
+        }
+    }
+
+    /**
+     * 记录一次异常
+     * @param endpoint 接口（请求方法 + 路径模板）
+     * @param e 异常
+     * @param code 错误码
+     * @return 是否需要完整记录本次异常（窗口内第一次出现时为true）
+     */
+    public boolean record(String endpoint, Throwable e, int code) {
+        if (!enabled) {
+            return true;
+        }
+        String key = endpoint + '|' + e.getClass().getName() + '|' + code;
+        Signature signature = signatures.get(key);
+        if (signature == null) {
+            if (signatures.size() >= maxSignatures) {
+                overflowCount.increment();
+                return false;
+            }
+            signature = new Signature(endpoint, e.getClass().getName(), code);
+            Signature existing = signatures.putIfAbsent(key, signature);
+            if (existing == null) {
+                return true;
+            }
+            signature = existing;
+        }
+        signature.suppressed.increment();
+        signature.lastMessage = e.getMessage();
+        return false;
+    }
+
+    /**
+     * 输出当前窗口的汇总并重置计数；窗口内未再出现的签名被移除，下次出现时重新完整记录
+     */
+    public void flush() {
+        for (Map.Entry<String, Signature> entry : signatures.entrySet()) {
+            Signature signature = entry.getValue();
+            long suppressed = signature.suppressed.sumThenReset();
+            if (suppressed == 0) {
+                signatures.remove(entry.getKey(), signature);
+                // 移除期间并发计入的次数
+                suppressed = signature.suppressed.sumThenReset();
+            }
+            if (suppressed > 0) {
+                log.error("接口'{}'，异常{}（错误码{}）在最近{}秒内重复{}次，最近一次信息：{}", signature.endpoint,
+                        signature.exceptionType, signature.code, windowSeconds, suppressed, signature.lastMessage);
+            }
+        }
+        long overflow = overflowCount.sumThenReset();
+        if (overflow > 0) {
+            log.error("异常签名数量超过上限{}，最近{}秒内有{}次异常未记录", maxSignatures, windowSeconds, overflow);
+        }
+    }
+
+    private static class Signature {
+        final String endpoint;
+        final String exceptionType;
+        final int code;
+        final LongAdder suppressed = new LongAdder();
+        volatile String lastMessage;
+
+        Signature(String endpoint, String exceptionType, int code) {
+            this.endpoint = endpoint;
+            this.exceptionType = exceptionType;
+            this.code = code;
+        }
+    }
+}
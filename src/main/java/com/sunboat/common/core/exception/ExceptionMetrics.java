@@ -0,0 +1,118 @@
+package com.sunboat.common.core.exception;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按接口、错误码统计的异常次数
+ * 通过{@link #snapshot()}查看；容器中有MeterRegistry时同时发布为sunboat.http.errors（标签：endpoint、code）
+ */
+@Component
+public class ExceptionMetrics {
+
+    /**
+     * 超出接口数量上限后统一使用的接口名
+     */
+    static final String OTHER_ENDPOINT = "other";
+
+    /**
+     * 统计的接口数量上限，防止标签基数膨胀
+     */
+    @Value("${sunboat.exception.metrics.max-endpoints:500}")
+    private int maxEndpoints;
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, Boolean> endpoints = new ConcurrentHashMap<>();
+
+    public ExceptionMetrics(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registryProvider = registryProvider;
+    }
+
+    /**
+     * 记录一次异常
+     * @param endpoint 接口（请求方法 + 路径模板）
+     * @param code 错误码
+     */
+    public void increment(String endpoint, int code) {
+        String name = endpointOf(endpoint);
+        String key = name + '|' + code;
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, k -> register(new Counter(name, code)));
+        }
+        counter.count.increment();
+    }
+
+    /**
+     * 获取当前统计快照
+     */
+    public List<Snapshot> snapshot() {
+        List<Snapshot> snapshots = new ArrayList<>(counters.size());
+        for (Counter counter : counters.values()) {
+            snapshots.add(new Snapshot(counter.endpoint, counter.code, counter.count.sum()));
+        }
+        return snapshots;
+    }
+
+    private String endpointOf(String endpoint) {
+        if (endpoints.containsKey(endpoint)) {
+            return endpoint;
+        }
+        if (endpoints.size() >= maxEndpoints) {
+            return OTHER_ENDPOINT;
+        }
+        endpoints.put(endpoint, Boolean.TRUE);
+        return endpoint;
+    }
+
+    private Counter register(Counter counter) {
+        MeterRegistry registry = registryProvider.getIfAvailable();
+        if (registry != null) {
+            FunctionCounter.builder("sunboat.http.errors", counter.count, LongAdder::sum)
+                    .tag("endpoint", counter.endpoint)
+                    .tag("code", String.valueOf(counter.code))
+                    .register(registry);
+        }
+        return counter;
+    }
+
+    private static class Counter {
+        final String endpoint;
+        final int code;
+        final LongAdder count = new LongAdder();
+
+        Counter(String endpoint, int code) {
+            this.endpoint = endpoint;
+            this.code = code;
+        }
+    }
+
+    /**
+     * 单个接口+错误码的统计快照
+     */
+    @Getter
+    public static class Snapshot {
+        private final String endpoint;
+        private final int code;
+        private final long count;
+
+        public Snapshot(String endpoint, int code, long count) {
+            this.endpoint = endpoint;
+            this.code = code;
+            this.count = count;
+        }
+    }
+}
@@ -3,14 +3,19 @@ package com.sunboat.common.core.exception;
 
 import com.sunboat.common.core.enums.ResultCodeEnum;
 import com.sunboat.common.core.result.RtnResult;
+import com.sunboat.common.core.result.RtnResultResponseCache;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.HandlerMapping;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 
 /**
@@ -20,13 +25,46 @@ import javax.servlet.http.HttpServletRequest;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String UNKNOWN_ERROR_MESSAGE = "系统异常，请联系管理员";
+
+    @Autowired(required = false)
+    private RtnResultResponseCache responseCache;
+
+    @Autowired(required = false)
+    private ExceptionLogAggregator logAggregator;
+
+    @Autowired(required = false)
+    private ExceptionMetrics exceptionMetrics;
+
+    /**
+     * 未知异常的固定返回（预序列化）
+     */
+    private ResponseEntity<byte[]> unknownErrorResponse;
+
+    @PostConstruct
+    public void init() {
+        if (responseCache != null) {
+            unknownErrorResponse = responseCache.toResponse(
+                    RtnResult.fail(ResultCodeEnum.INTERNAL_SERVER_ERROR, UNKNOWN_ERROR_MESSAGE));
+        }
+    }
+
     /**
      * 处理自定义业务异常
+     * 信息与错误码枚举一致时直接返回预序列化结果
      */
     @ExceptionHandler(BusinessException.class)
-    public RtnResult<Void> handleBusinessException(BusinessException e, HttpServletRequest request) {
-        log.error("请求地址'{}'，业务异常：{}", request.getRequestURI(), e.getMessage());
-        return RtnResult.fail(e.getCode(), e.getMessage());
+    public ResponseEntity<?> handleBusinessException(BusinessException e, HttpServletRequest request) {
+        if (record(request, e, e.getCode())) {
+            log.error("请求地址'{}'，业务异常：{}", request.getRequestURI(), e.getMessage());
+        }
+        if (responseCache != null) {
+            ResponseEntity<byte[]> cached = responseCache.fail(e.getCode(), e.getMessage());
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return ResponseEntity.ok(RtnResult.fail(e.getCode(), e.getMessage()));
     }
 
     /**
@@ -39,7 +77,9 @@ public class GlobalExceptionHandler {
         for (FieldError fieldError : bindingResult.getFieldErrors()) {
             errorMsg.append(fieldError.getField()).append(":").append(fieldError.getDefaultMessage()).append(";");
         }
-        log.error("请求地址'{}'，参数验证失败：{}", request.getRequestURI(), errorMsg);
+        if (record(request, e, ResultCodeEnum.DATA_VALIDATION_ERROR.getCode())) {
+            log.error("请求地址'{}'，参数验证失败：{}", request.getRequestURI(), errorMsg);
+        }
         return RtnResult.fail(ResultCodeEnum.DATA_VALIDATION_ERROR, errorMsg.toString());
     }
 
@@ -49,7 +89,9 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public RtnResult<Void> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException e, HttpServletRequest request) {
         String errorMsg = "参数'" + e.getName() + "'类型不匹配，期望类型：" + e.getRequiredType().getSimpleName();
-        log.error("请求地址'{}'，{}", request.getRequestURI(), errorMsg);
+        if (record(request, e, ResultCodeEnum.BAD_REQUEST.getCode())) {
+            log.error("请求地址'{}'，{}", request.getRequestURI(), errorMsg);
+        }
         return RtnResult.fail(ResultCodeEnum.BAD_REQUEST, errorMsg);
     }
 
@@ -57,9 +99,47 @@ public class GlobalExceptionHandler {
      * 处理其他未知异常
      */
     @ExceptionHandler(Exception.class)
-    public RtnResult<Void> handleException(Exception e, HttpServletRequest request) {
-        log.error("请求地址'{}'，发生未知异常：", request.getRequestURI(), e);
-        return RtnResult.fail(ResultCodeEnum.INTERNAL_SERVER_ERROR, "系统异常，请联系管理员");
+    public ResponseEntity<?> handleException(Exception e, HttpServletRequest request) {
+        if (record(request, e, ResultCodeEnum.INTERNAL_SERVER_ERROR.getCode())) {
+            log.error("请求地址'{}'，发生未知异常：", request.getRequestURI(), e);
+        }
+        if (unknownErrorResponse != null) {
+            return unknownErrorResponse;
+        }
+        return ResponseEntity.ok(RtnResult.fail(ResultCodeEnum.INTERNAL_SERVER_ERROR, UNKNOWN_ERROR_MESSAGE));
+    }
+
+    /**
+     * 记录异常次数，并判断是否需要输出完整日志（重复异常由ExceptionLogAggregator汇总输出）
+     */
+    private boolean record(HttpServletRequest request, Throwable e, int code) {
+        if (exceptionMetrics == null && logAggregator == null) {
+            return true;
+        }
+        String endpoint = endpointOf(request);
+        if (exceptionMetrics != null) {
+            exceptionMetrics.increment(endpoint, code);
+        }
+        return logAggregator == null || logAggregator.record(endpoint, e, code);
+    }
+
+    /**
+     * 接口标识：请求方法 + 路径模板（如 GET /user/{id}），未匹配到处理器时使用请求路径
+     */
+    private static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + ' ' + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    /**
+     * 将异常转换为失败返回结果（供无法经过本处理器的场景使用，如流式响应中途出错）
+     */
+    public static RtnResult<Void> toFailResult(Throwable e) {
+        if (e instanceof BusinessException) {
+            BusinessException be = (BusinessException) e;
+            return RtnResult.fail(be.getCode(), be.getMessage());
+        }
+        return RtnResult.fail(ResultCodeEnum.INTERNAL_SERVER_ERROR, UNKNOWN_ERROR_MESSAGE);
     }
 }
     
\ No newline at end of file
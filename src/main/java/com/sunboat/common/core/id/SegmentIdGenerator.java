@@ -0,0 +1,211 @@
+package com.sunboat.common.core.id;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.sunboat.common.core.utils.RedisTemplateUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 号段模式ID生成器
+ * 每次通过INCRBY从Redis租用一段连续ID，在本地用CAS自增发号，绝大多数调用不访问Redis；
+ * 当前号段消耗到一定比例时后台预取下一号段（双缓冲），号段用完时直接切换。
+ * 号段步长按消耗速度自适应：一个号段在target-millis内用完则步长翻倍，用时超过两倍则减半。
+ * ID全局唯一且单调递增（单节点内严格递增，多节点间趋势递增），节点重启会丢弃未用完的号段
+ */
+@Slf4j
+@Component
+public class SegmentIdGenerator {
+
+    private static final String KEY_PREFIX = "sunboat:id:segment:";
+
+    @Autowired
+    private RedisTemplateUtils redisTemplateUtils;
+
+    /**
+     * 初始（最小）步长
+     */
+    @Value("${sunboat.id.segment.step:1000}")
+    private long minStep;
+
+    /**
+     * 最大步长
+     */
+    @Value("${sunboat.id.segment.max-step:1000000}")
+    private long maxStep;
+
+    /**
+     * 期望单个号段的使用时长（毫秒），用于调整步长
+     */
+    @Value("${sunboat.id.segment.target-millis:1000}")
+    private long targetMillis;
+
+    /**
+     * 当前号段剩余比例低于该值时预取下一号段
+     */
+    @Value("${sunboat.id.segment.prefetch-ratio:0.5}")
+    private double prefetchRatio;
+
+    /**
+     * 号段用完时等待预取结果的最长时间（毫秒），超时后同步租用新号段
+     */
+    @Value("${sunboat.id.segment.prefetch-wait-millis:3000}")
+    private long prefetchWaitMillis;
+
+    private final Map<String, SegmentBuffer> buffers = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor prefetchExecutor;
+
+    @PostConstruct
+    public void init() {
+        prefetchExecutor = new ThreadPoolExecutor(1, 4, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(256),
+                new NamedThreadFactory("id-segment-prefetch-", true), new ThreadPoolExecutor.AbortPolicy());
+        prefetchExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        prefetchExecutor.shutdownNow();
+        // 被丢弃的预取任务不会再完成，结束等待中的号段切换
+        for (SegmentBuffer buffer : buffers.values()) {
+            CompletableFuture<Segment> next = buffer.next;
+            if (next != null) {
+                next.completeExceptionally(new RejectedExecutionException("ID生成器已关闭"));
+            }
+        }
+    }
+
+    /**
+     * 生成ID
+     * @param bizTag 业务标识，如order，不同业务的ID相互独立
+     * @return 从1开始的正整数ID
+     */
+    public long nextId(String bizTag) {
+        SegmentBuffer buffer = buffers.get(bizTag);
+        if (buffer == null) {
+            buffer = buffers.computeIfAbsent(bizTag, SegmentBuffer::new);
+        }
+        for (;;) {
+            Segment segment = buffer.current;
+            long id = segment.cursor.getAndIncrement();
+            if (id < segment.end) {
+                // 只有取到预取点的线程触发预取
+                if (id == segment.prefetchAt) {
+                    prefetch(buffer);
+                }
+                return id;
+            }
+            switchSegment(buffer, segment);
+        }
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    private void prefetch(SegmentBuffer buffer) {
+        synchronized (buffer) {
+            if (buffer.next != null) {
+                return;
+            }
+            CompletableFuture<Segment> future = new CompletableFuture<>();
+            buffer.next = future;
+            try {
+                prefetchExecutor.execute(() -> {
+                    try {
+                        future.complete(lease(buffer));
+                    } catch (Exception e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                buffer.next = null;
+            }
+        }
+    }
+
+    /**
+     * 当前号段用完时切换到预取的号段，预取未完成则最多等待prefetchWaitMillis，
+     * 预取失败、超时或未预取则同步租用（超时的预取号段完成后被丢弃，只会跳过一段ID）
+     */
+    private void switchSegment(SegmentBuffer buffer, Segment exhausted) {
+        synchronized (buffer) {
+            if (buffer.current != exhausted) {
+                return;
+            }
+            adjustStep(buffer, exhausted);
+            Segment segment = null;
+            if (buffer.next != null) {
+                try {
+                    segment = buffer.next.get(prefetchWaitMillis, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException e) {
+                    log.warn("号段预取失败 - BizTag: {}, 异常: {}", buffer.bizTag, e.getCause().getMessage());
+                } catch (TimeoutException e) {
+                    log.warn("号段预取超时 - BizTag: {}, 等待: {}ms", buffer.bizTag, prefetchWaitMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                buffer.next = null;
+            }
+            if (segment == null) {
+                segment = lease(buffer);
+            }
+            segment.activatedAt = System.currentTimeMillis();
+            buffer.current = segment;
+        }
+    }
+
+    private void adjustStep(SegmentBuffer buffer, Segment exhausted) {
+        if (exhausted.activatedAt == 0) {
+            return;
+        }
+        long elapsed = System.currentTimeMillis() - exhausted.activatedAt;
+        if (elapsed < targetMillis && buffer.step < maxStep) {
+            buffer.step = Math.min(maxStep, buffer.step * 2);
+        } else if (elapsed > targetMillis * 2 && buffer.step > minStep) {
+            buffer.step = Math.max(minStep, buffer.step / 2);
+        }
+    }
+
+    private Segment lease(SegmentBuffer buffer) {
+        long step = buffer.step;
+        Long max = redisTemplateUtils.incrString(KEY_PREFIX + buffer.bizTag, step);
+        long start = max - step + 1;
+        return new Segment(start, max + 1, start + (long) (step * (1 - prefetchRatio)));
+    }
+
+    private class SegmentBuffer {
+        final String bizTag;
+        volatile Segment current = new Segment(0, 0, -1);
+        /**
+         * 预取中或已预取的下一号段，仅在synchronized(this)中写入（关闭时无锁读取）
+         */
+        volatile CompletableFuture<Segment> next;
+        volatile long step = minStep;
+
+        SegmentBuffer(String bizTag) {
+            this.bizTag = bizTag;
+        }
+    }
+
+    /**
+     * 号段[cursor, end)
+     */
+    private static class Segment {
+        final AtomicLong cursor;
+        final long end;
+        final long prefetchAt;
+        volatile long activatedAt;
+
+        Segment(long start, long end, long prefetchAt) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+            this.prefetchAt = prefetchAt;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.sunboat.common.core.id;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.sunboat.common.core.utils.RedissonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 雪花算法ID生成器
+ * ID结构：41位毫秒时间戳 + 10位workerId + 12位序列号，单节点每毫秒最多4096个ID，发号全程无锁且不访问Redis。
+ * workerId在首次发号时从Redis租用（SET NX PX），后台定时续期；租约失效后停止发号并重新租用，
+ * 保证同一时刻不会有两个节点使用相同的workerId。
+ * 小幅时钟回拨（不超过max-backward-millis）时沿用上次的时间戳继续分配序列号，超出则抛出异常
+ */
+@Slf4j
+@Component
+public class SnowflakeIdGenerator {
+
+    private static final String WORKER_KEY_PREFIX = "sunboat:id:worker:";
+
+    private static final int WORKER_BITS = 10;
+
+    private static final int SEQUENCE_BITS = 12;
+
+    private static final int MAX_WORKERS = 1 << WORKER_BITS;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final String ACQUIRE_SCRIPT =
+            "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return 1 end return 0";
+
+    private static final String RENEW_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then redis.call('PEXPIRE', KEYS[1], ARGV[2]) return 1 end return 0";
+
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0";
+
+    @Autowired
+    private RedissonUtils redissonUtils;
+
+    /**
+     * 时间戳起点，默认2024-01-01 00:00:00 UTC，可使用约69年
+     */
+    @Value("${sunboat.id.snowflake.epoch:1704067200000}")
+    private long epoch;
+
+    /**
+     * workerId租期（毫秒），每1/3租期续期一次
+     */
+    @Value("${sunboat.id.snowflake.worker-lease-millis:60000}")
+    private long workerLeaseMillis;
+
+    /**
+     * 允许的最大时钟回拨（毫秒）
+     */
+    @Value("${sunboat.id.snowflake.max-backward-millis:5}")
+    private long maxBackwardMillis;
+
+    /**
+     * 本节点的租约标识
+     */
+    private final String leaseToken = UUID.randomUUID().toString();
+
+    /**
+     * 上次分配的 (相对时间戳 << SEQUENCE_BITS | 序列号)
+     */
+    private final AtomicLong lastState = new AtomicLong();
+
+    private volatile int workerId = -1;
+
+    /**
+     * 租约有效截止时间，按发起租用/续期请求前的时间计算，比Redis侧的过期时间更早
+     */
+    private volatile long leaseValidUntil;
+
+    private ScheduledExecutorService renewExecutor;
+
+    @PostConstruct
+    public void init() {
+        renewExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("id-worker-renew-", true));
+        long period = Math.max(1, workerLeaseMillis / 3);
+        renewExecutor.scheduleAtFixedRate(this::renew, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        renewExecutor.shutdownNow();
+        int current = workerId;
+        if (current >= 0) {
+            try {
+                redissonUtils.evalScript(Collections.singletonList(WORKER_KEY_PREFIX + current), RELEASE_SCRIPT,
+                        RScript.ReturnType.INTEGER, leaseToken);
+            } catch (Exception e) {
+                log.warn("workerId释放失败 - WorkerId: {}, 异常: {}", current, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 生成ID
+     */
+    public long nextId() {
+        long worker = ensureWorker();
+        for (;;) {
+            long now = System.currentTimeMillis() - epoch;
+            long prev = lastState.get();
+            long prevTimestamp = prev >>> SEQUENCE_BITS;
+            long next;
+            if (now > prevTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if (prevTimestamp - now > maxBackwardMillis) {
+                throw new IllegalStateException("时钟回拨" + (prevTimestamp - now) + "ms，拒绝生成ID");
+            } else if ((prev & SEQUENCE_MASK) == SEQUENCE_MASK) {
+                // 当前毫秒序列号用尽，等待下一毫秒
+                Thread.yield();
+                continue;
+            } else {
+                next = prev + 1;
+            }
+            if (lastState.compareAndSet(prev, next)) {
+                return (next >>> SEQUENCE_BITS) << (WORKER_BITS + SEQUENCE_BITS)
+                        | worker << SEQUENCE_BITS
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * 当前租用的workerId，未租用时为-1
+     */
+    public int getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * 解析ID中的生成时间（毫秒时间戳）
+     */
+    public long timestampOf(long id) {
+        return (id >>> (WORKER_BITS + SEQUENCE_BITS)) + epoch;
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    private long ensureWorker() {
+        int current = workerId;
+        if (current >= 0 && System.currentTimeMillis() < leaseValidUntil) {
+            return current;
+        }
+        synchronized (this) {
+            if (workerId >= 0 && System.currentTimeMillis() < leaseValidUntil) {
+                return workerId;
+            }
+            workerId = -1;
+            return acquire();
+        }
+    }
+
+    /**
+     * 从随机位置开始依次尝试租用workerId
+     */
+    private int acquire() {
+        int offset = ThreadLocalRandom.current().nextInt(MAX_WORKERS);
+        for (int i = 0; i < MAX_WORKERS; i++) {
+            int candidate = (offset + i) % MAX_WORKERS;
+            long start = System.currentTimeMillis();
+            Long acquired = redissonUtils.evalScript(Collections.singletonList(WORKER_KEY_PREFIX + candidate),
+                    ACQUIRE_SCRIPT, RScript.ReturnType.INTEGER, leaseToken, String.valueOf(workerLeaseMillis));
+            if (acquired != null && acquired == 1) {
+                leaseValidUntil = start + workerLeaseMillis;
+                workerId = candidate;
+                log.info("租用workerId成功 - WorkerId: {}", candidate);
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("无可用的workerId，已被占用" + MAX_WORKERS + "个");
+    }
+
+    private void renew() {
+        int current = workerId;
+        if (current < 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Long renewed = redissonUtils.evalScript(Collections.singletonList(WORKER_KEY_PREFIX + current),
+                    RENEW_SCRIPT, RScript.ReturnType.INTEGER, leaseToken, String.valueOf(workerLeaseMillis));
+            if (renewed != null && renewed == 1) {
+                leaseValidUntil = start + workerLeaseMillis;
+            } else {
+                log.warn("workerId租约已丢失，下次发号时重新租用 - WorkerId: {}", current);
+                synchronized (this) {
+                    if (workerId == current) {
+                        workerId = -1;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("workerId续期失败 - WorkerId: {}, 异常: {}", current, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.sunboat.common.core.leaderboard;
+
+import com.sunboat.common.core.utils.RedisBatchResult;
+import com.sunboat.common.core.utils.RedisTemplateUtils;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于ZSet的排行榜
+ * 按分数从高到低排名，排名从1开始，分数相同时按成员字典序倒序；
+ * 排序与分页均在Redis中完成，不再拉取整个集合到本地排序。
+ * 前N名在本地缓存top-cache-millis，期间的分数变化（包括本节点写入）不会立即反映在top结果中
+ */
+@Component
+public class RedisLeaderboard {
+
+    private static final String KEY_PREFIX = "sunboat:leaderboard:";
+
+    /**
+     * key不存在时PTTL的返回值
+     */
+    private static final long KEY_NOT_EXISTS = -2L;
+
+    @Autowired
+    private RedisTemplateUtils redisTemplateUtils;
+
+    /**
+     * 前N名本地缓存时间（毫秒），0表示不缓存
+     */
+    @Value("${sunboat.leaderboard.top-cache-millis:1000}")
+    private long topCacheMillis;
+
+    /**
+     * 本地缓存的名次数量，top(k)中k不超过该值时走缓存
+     */
+    @Value("${sunboat.leaderboard.top-cache-size:100}")
+    private int topCacheSize;
+
+    private final Map<String, TopSnapshot> topCache = new ConcurrentHashMap<>();
+
+    /**
+     * 增加成员分数，成员不存在时以delta为初始分数
+     * @return 增加后的分数
+     */
+    public Double incrementScore(String board, Object member, double delta) {
+        return redisTemplateUtils.incrZSetScore(key(board), member, delta);
+    }
+
+    /**
+     * 设置成员分数
+     */
+    public Boolean setScore(String board, Object member, double score) {
+        return redisTemplateUtils.addZSet(key(board), member, score);
+    }
+
+    /**
+     * 批量设置成员分数（管道）
+     */
+    public RedisBatchResult<Object, Boolean> setScores(String board, Map<?, Double> scores) {
+        return redisTemplateUtils.multiAddZSet(key(board), scores);
+    }
+
+    /**
+     * 删除成员
+     */
+    public Long remove(String board, Object... members) {
+        return redisTemplateUtils.removeZSet(key(board), members);
+    }
+
+    /**
+     * 前k名，k不超过top-cache-size时使用本地缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<RankEntry<T>> top(String board, int k) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        if (topCacheMillis <= 0 || k > topCacheSize) {
+            return page(board, 0, k);
+        }
+        TopSnapshot snapshot = topCache.get(board);
+        long now = System.currentTimeMillis();
+        if (snapshot == null) {
+            snapshot = loadTop(board, now);
+            if (snapshot == null) {
+                return Collections.emptyList();
+            }
+        } else if (now >= snapshot.expiresAt && snapshot.refreshing.compareAndSet(false, true)) {
+            // 过期后由一个线程刷新，其他线程继续使用旧数据；刷新失败时继续使用旧数据
+            TopSnapshot stale = snapshot;
+            try {
+                TopSnapshot loaded = loadTop(board, now);
+                if (loaded != null) {
+                    snapshot = loaded;
+                }
+            } finally {
+                stale.refreshing.set(false);
+            }
+        }
+        List<RankEntry<Object>> entries = snapshot.entries;
+        return (List<RankEntry<T>>) (List<?>) entries.subList(0, Math.min(k, entries.size()));
+    }
+
+    /**
+     * 按名次分页
+     * @param offset 跳过的条数
+     * @param limit 条数
+     */
+    public <T> List<RankEntry<T>> page(String board, long offset, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        Set<ZSetOperations.TypedTuple<T>> tuples =
+                redisTemplateUtils.getZSetReverseRangeWithScores(key(board), offset, offset + limit - 1);
+        return toEntries(tuples, offset + 1);
+    }
+
+    /**
+     * 按分数区间分页（分数从高到低）
+     */
+    public <T> List<RankEntry<T>> byScore(String board, double min, double max, long offset, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        Set<ZSetOperations.TypedTuple<T>> tuples =
+                redisTemplateUtils.getZSetReverseByScore(key(board), min, max, offset, limit);
+        if (tuples.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Long firstRank = redisTemplateUtils.getZSetReverseRank(key(board), tuples.iterator().next().getValue());
+        return toEntries(tuples, firstRank == null ? 0 : firstRank + 1);
+    }
+
+    /**
+     * 查询成员的名次与分数，成员不在榜上时返回null
+     */
+    public <T> RankEntry<T> entryOf(String board, T member) {
+        Long rank = redisTemplateUtils.getZSetReverseRank(key(board), member);
+        if (rank == null) {
+            return null;
+        }
+        Double score = redisTemplateUtils.getZSetScore(key(board), member);
+        return score == null ? null : new RankEntry<>(member, score, rank + 1);
+    }
+
+    /**
+     * 查询成员前后各radius名（含成员本身），成员不在榜上时返回空列表
+     */
+    public <T> List<RankEntry<T>> around(String board, T member, int radius) {
+        Long rank = redisTemplateUtils.getZSetReverseRank(key(board), member);
+        if (rank == null) {
+            return Collections.emptyList();
+        }
+        long start = Math.max(0, rank - radius);
+        Set<ZSetOperations.TypedTuple<T>> tuples =
+                redisTemplateUtils.getZSetReverseRangeWithScores(key(board), start, rank + radius);
+        return toEntries(tuples, start + 1);
+    }
+
+    /**
+     * 榜单人数
+     */
+    public Long size(String board) {
+        return redisTemplateUtils.getZSetSize(key(board));
+    }
+
+    /**
+     * 只保留前maxSize名，返回删除的人数
+     */
+    public Long trim(String board, long maxSize) {
+        return redisTemplateUtils.trimZSet(key(board), maxSize, true);
+    }
+
+    /**
+     * 清除本地缓存的前N名
+     */
+    public void evictTopCache(String board) {
+        topCache.remove(board);
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    private String key(String board) {
+        return KEY_PREFIX + board;
+    }
+
+    /**
+     * 加载前N名并缓存，Redis异常时返回null
+     * page在Redis异常或熔断时返回空列表，空结果只有在榜单key确实不存在时才缓存
+     */
+    private TopSnapshot loadTop(String board, long now) {
+        List<RankEntry<Object>> entries = page(board, 0, topCacheSize);
+        if (entries.isEmpty()) {
+            Long ttl = redisTemplateUtils.getKeyExpire(key(board), TimeUnit.MILLISECONDS);
+            if (ttl == null || ttl != KEY_NOT_EXISTS) {
+                return null;
+            }
+        }
+        TopSnapshot snapshot = new TopSnapshot(entries, now + topCacheMillis);
+        topCache.put(board, snapshot);
+        return snapshot;
+    }
+
+    private <T> List<RankEntry<T>> toEntries(Set<ZSetOperations.TypedTuple<T>> tuples, long firstRank) {
+        List<RankEntry<T>> entries = new ArrayList<>(tuples.size());
+        long rank = firstRank;
+        for (ZSetOperations.TypedTuple<T> tuple : tuples) {
+            entries.add(new RankEntry<>(tuple.getValue(), tuple.getScore() == null ? 0 : tuple.getScore(), rank++));
+        }
+        return entries;
+    }
+
+    private static class TopSnapshot {
+        final List<RankEntry<Object>> entries;
+        final long expiresAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        TopSnapshot(List<RankEntry<Object>> entries, long expiresAt) {
+            this.entries = Collections.unmodifiableList(entries);
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 排行榜条目
+     */
+    @Getter
+    public static class RankEntry<T> {
+        /**
+         * 成员
+         */
+        private final T member;
+
+        /**
+         * 分数
+         */
+        private final double score;
+
+        /**
+         * 名次，从1开始
+         */
+        private final long rank;
+
+        public RankEntry(T member, double score, long rank) {
+            this.member = member;
+            this.score = score;
+            this.rank = rank;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.sunboat.common.core.lock;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 方法级分布式锁，获取锁失败时抛出LOCK_ACQUIRE_FAILED业务异常
+ * 示例：@DistributedLock(key = "#orderId")、@DistributedLock(key = "#skuIds", waitTime = 1000)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface DistributedLock {
+
+    /**
+     * 锁名称，默认为 类名.方法名
+     */
+    String name() default "";
+
+    /**
+     * 锁key的SpEL表达式；结果为集合或数组时对每个元素加锁（按字典序），为空时整个方法共用一把锁
+     */
+    String key() default "";
+
+    /**
+     * 最长等待时间
+     */
+    long waitTime() default 3000;
+
+    /**
+     * 持有时间，小于等于0时由看门狗自动续期直到方法结束
+     */
+    long leaseTime() default -1;
+
+    /**
+     * 时间单位
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+    /**
+     * 获取锁失败时的提示信息，为空时使用错误码默认信息
+     */
+    String message() default "";
+}
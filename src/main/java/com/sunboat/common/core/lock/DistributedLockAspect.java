@@ -0,0 +1,72 @@
+package com.sunboat.common.core.lock;
+
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.exception.BusinessException;
+import com.sunboat.common.core.utils.SpelKeyResolver;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link DistributedLock}注解切面
+ */
+@Aspect
+@Component
+public class DistributedLockAspect {
+
+    @Autowired
+    private DistributedLockTemplate lockTemplate;
+
+    @Autowired
+    private SpelKeyResolver spelKeyResolver;
+
+    @Around("@annotation(distributedLock)")
+    public Object around(ProceedingJoinPoint joinPoint, DistributedLock distributedLock) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String name = distributedLock.name().isEmpty()
+                ? method.getDeclaringClass().getSimpleName() + "." + method.getName() : distributedLock.name();
+        List<String> keys = resolveKeys(name, distributedLock.key(), method, joinPoint.getArgs());
+        DistributedLockTemplate.Handle handle = lockTemplate.tryLock(keys, distributedLock.waitTime(),
+                distributedLock.leaseTime(), distributedLock.unit());
+        if (handle == null) {
+            throw distributedLock.message().isEmpty()
+                    ? BusinessException.of(ResultCodeEnum.LOCK_ACQUIRE_FAILED)
+                    : new BusinessException(ResultCodeEnum.LOCK_ACQUIRE_FAILED, distributedLock.message());
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            handle.close();
+        }
+    }
+
+    private List<String> resolveKeys(String name, String expression, Method method, Object[] args) {
+        Object value = spelKeyResolver.evaluate(expression, method, args);
+        if (value == null) {
+            return Collections.singletonList(expression.isEmpty() ? name : name + ":null");
+        }
+        List<String> keys = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                keys.add(name + ":" + element);
+            }
+        } else if (value.getClass().isArray()) {
+            for (int i = 0; i < Array.getLength(value); i++) {
+                keys.add(name + ":" + Array.get(value, i));
+            }
+        } else {
+            keys.add(name + ":" + value);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,225 @@
+package com.sunboat.common.core.lock;
+
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.exception.BusinessException;
+import com.sunboat.common.core.metrics.RedisMetrics;
+import com.sunboat.common.core.utils.RedissonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 分布式锁模板
+ * 同一JVM内的线程先在本地锁上排队，每个key同一时刻只有一个线程访问Redis竞争RLock；
+ * 多key按字典序依次加锁，避免不同调用方加锁顺序不一致导致死锁；
+ * leaseTime小于等于0时由Redisson看门狗自动续期
+ */
+@Slf4j
+@Component
+public class DistributedLockTemplate {
+
+    private static final String KEY_PREFIX = "sunboat:lock:";
+
+    @Autowired
+    private RedissonUtils redissonUtils;
+
+    @Autowired(required = false)
+    private RedisMetrics redisMetrics;
+
+    /**
+     * key -> 本地锁（按引用计数回收）
+     */
+    private final Map<String, LocalLock> localLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 加锁执行，获取锁失败时抛出LOCK_ACQUIRE_FAILED业务异常
+     * @param key 锁key
+     * @param waitTime 最长等待时间
+     * @param leaseTime 持有时间，小于等于0时启用看门狗续期
+     * @param unit 时间单位
+     * @param action 加锁后执行的操作
+     */
+    public <T> T execute(String key, long waitTime, long leaseTime, TimeUnit unit, Supplier<T> action) {
+        return execute(Collections.singletonList(key), waitTime, leaseTime, unit, action);
+    }
+
+    /**
+     * 多key加锁执行，所有key均获取成功后才执行
+     */
+    public <T> T execute(Collection<String> keys, long waitTime, long leaseTime, TimeUnit unit, Supplier<T> action) {
+        Handle handle = lock(keys, waitTime, leaseTime, unit);
+        try {
+            return action.get();
+        } finally {
+            handle.close();
+        }
+    }
+
+    /**
+     * 加锁，失败时抛出LOCK_ACQUIRE_FAILED业务异常；返回的Handle需在finally或try-with-resources中关闭
+     */
+    public Handle lock(Collection<String> keys, long waitTime, long leaseTime, TimeUnit unit) {
+        Handle handle = tryLock(keys, waitTime, leaseTime, unit);
+        if (handle == null) {
+            throw BusinessException.of(ResultCodeEnum.LOCK_ACQUIRE_FAILED);
+        }
+        return handle;
+    }
+
+    /**
+     * 尝试加锁
+     * @return 加锁成功返回Handle，失败（超时或被中断）返回null
+     */
+    public Handle tryLock(Collection<String> keys, long waitTime, long leaseTime, TimeUnit unit) {
+        // 去重并排序，保证所有调用方的加锁顺序一致
+        List<String> sortedKeys = new ArrayList<>(new TreeSet<>(keys));
+        long start = System.nanoTime();
+        long deadline = start + unit.toNanos(Math.max(0, waitTime));
+        Handle handle = new Handle(sortedKeys.size());
+        boolean acquired = false;
+        try {
+            for (String key : sortedKeys) {
+                if (!acquireOne(key, deadline, leaseTime, unit, handle)) {
+                    return null;
+                }
+            }
+            acquired = true;
+            handle.acquiredAt = System.nanoTime();
+            return handle;
+        } finally {
+            recordMetric("lock.wait", sortedKeys, System.nanoTime() - start, !acquired);
+            if (!acquired) {
+                handle.unlockAll(false);
+            }
+        }
+    }
+
+    private boolean acquireOne(String key, long deadline, long leaseTime, TimeUnit unit, Handle handle) {
+        LocalLock localLock = retain(key);
+        boolean localLocked = false;
+        try {
+            localLocked = localLock.lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!localLocked) {
+                return false;
+            }
+            RLock rLock = redissonUtils.getLock(KEY_PREFIX + key);
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            boolean locked = leaseTime > 0
+                    ? rLock.tryLock(remaining, unit.toNanos(leaseTime), TimeUnit.NANOSECONDS)
+                    : rLock.tryLock(remaining, TimeUnit.NANOSECONDS);
+            if (!locked) {
+                return false;
+            }
+            handle.add(key, localLock, rLock);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (!handle.contains(localLock)) {
+                if (localLocked) {
+                    localLock.lock.unlock();
+                }
+                release(key);
+            }
+        }
+    }
+
+    private LocalLock retain(String key) {
+        return localLocks.compute(key, (k, lock) -> {
+            LocalLock result = lock == null ? new LocalLock() : lock;
+            result.refs++;
+            return result;
+        });
+    }
+
+    private void release(String key) {
+        localLocks.computeIfPresent(key, (k, lock) -> --lock.refs == 0 ? null : lock);
+    }
+
+    private void recordMetric(String operation, List<String> keys, long nanos, boolean error) {
+        if (redisMetrics != null && !keys.isEmpty()) {
+            redisMetrics.record(operation, keys.get(0), nanos, error);
+        }
+    }
+
+    private static class LocalLock {
+        final ReentrantLock lock = new ReentrantLock();
+        /**
+         * 引用计数，仅在ConcurrentHashMap.compute中修改
+         */
+        int refs;
+    }
+
+    /**
+     * 已获取的锁，close时按加锁的逆序释放
+     */
+    public class Handle implements AutoCloseable {
+        private final List<String> keys;
+        private final List<LocalLock> heldLocalLocks;
+        private final List<RLock> rLocks;
+        private long acquiredAt;
+        private boolean closed;
+
+        private Handle(int size) {
+            this.keys = new ArrayList<>(size);
+            this.heldLocalLocks = new ArrayList<>(size);
+            this.rLocks = new ArrayList<>(size);
+        }
+
+        private void add(String key, LocalLock localLock, RLock rLock) {
+            keys.add(key);
+            heldLocalLocks.add(localLock);
+            rLocks.add(rLock);
+        }
+
+        private boolean contains(LocalLock localLock) {
+            return heldLocalLocks.contains(localLock);
+        }
+
+        /**
+         * 获取锁的key（已排序）
+         */
+        public List<String> getKeys() {
+            return Collections.unmodifiableList(keys);
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                unlockAll(true);
+            }
+        }
+
+        private void unlockAll(boolean recordHold) {
+            closed = true;
+            for (int i = keys.size() - 1; i >= 0; i--) {
+                try {
+                    rLocks.get(i).unlock();
+                } catch (IllegalMonitorStateException e) {
+                    log.warn("分布式锁已过期自动释放 - Key: {}，请检查leaseTime设置", keys.get(i));
+                } catch (Exception e) {
+                    log.warn("分布式锁释放失败 - Key: {}, 异常: {}", keys.get(i), e.getMessage());
+                } finally {
+                    heldLocalLocks.get(i).lock.unlock();
+                    release(keys.get(i));
+                }
+            }
+            if (recordHold) {
+                recordMetric("lock.hold", keys, System.nanoTime() - acquiredAt, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.sunboat.common.core.metrics;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内指标统计，无外部依赖，通过{@link #snapshot()}查看
+ * 耗时按2的幂次（微秒）分桶统计，分位数为所在桶上界的近似值
+ */
+@Component
+public class LocalRedisMetricsSink implements RedisMetricsSink {
+
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordCall(String operation, String keyPrefix, long durationNanos, boolean error) {
+        OperationStats operationStats = statsFor(operation, keyPrefix);
+        operationStats.calls.increment();
+        if (error) {
+            operationStats.errors.increment();
+        }
+        operationStats.totalNanos.add(durationNanos);
+        operationStats.latency.record(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+    }
+
+    @Override
+    public void recordError(String operation, String keyPrefix) {
+        statsFor(operation, keyPrefix).errors.increment();
+    }
+
+    @Override
+    public void recordPayload(String operation, String keyPrefix, int bytes) {
+        OperationStats operationStats = statsFor(operation, keyPrefix);
+        operationStats.payloadSamples.increment();
+        operationStats.payloadBytes.add(bytes);
+        operationStats.payload.record(bytes);
+    }
+
+    /**
+     * 获取当前统计快照
+     */
+    public List<Snapshot> snapshot() {
+        List<Snapshot> snapshots = new ArrayList<>(stats.size());
+        for (OperationStats operationStats : stats.values()) {
+            snapshots.add(operationStats.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * 清空统计
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    private OperationStats statsFor(String operation, String keyPrefix) {
+        String id = operation + '|' + keyPrefix;
+        OperationStats operationStats = stats.get(id);
+        if (operationStats == null) {
+            operationStats = stats.computeIfAbsent(id, k -> new OperationStats(operation, keyPrefix));
+        }
+        return operationStats;
+    }
+
+    private static class OperationStats {
+        final String operation;
+        final String keyPrefix;
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final Log2Histogram latency = new Log2Histogram();
+        final LongAdder payloadSamples = new LongAdder();
+        final LongAdder payloadBytes = new LongAdder();
+        final Log2Histogram payload = new Log2Histogram();
+
+        OperationStats(String operation, String keyPrefix) {
+            this.operation = operation;
+            this.keyPrefix = keyPrefix;
+        }
+
+        Snapshot snapshot() {
+            long callCount = calls.sum();
+            long samples = payloadSamples.sum();
+            return new Snapshot(operation, keyPrefix, callCount, errors.sum(),
+                    callCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum()) / callCount,
+                    latency.percentile(0.5), latency.percentile(0.95), latency.percentile(0.99),
+                    samples == 0 ? 0 : payloadBytes.sum() / samples, payload.percentile(0.99));
+        }
+    }
+
+    /**
+     * 以2的幂次分桶的无锁直方图
+     */
+    static class Log2Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+        void record(long value) {
+            buckets.incrementAndGet(value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value));
+        }
+
+        /**
+         * 返回分位数所在桶的上界
+         */
+        long percentile(double quantile) {
+            long total = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                total += buckets.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long threshold = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= threshold) {
+                    return i == 0 ? 0 : (1L << i) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 单个操作+key前缀的统计快照
+     */
+    @Getter
+    public static class Snapshot {
+        private final String operation;
+        private final String keyPrefix;
+        private final long calls;
+        private final long errors;
+        /**
+         * 平均耗时（微秒）
+         */
+        private final long avgMicros;
+        private final long p50Micros;
+        private final long p95Micros;
+        private final long p99Micros;
+        /**
+         * 采样的平均数据大小（字节）
+         */
+        private final long avgPayloadBytes;
+        private final long p99PayloadBytes;
+
+        public Snapshot(String operation, String keyPrefix, long calls, long errors, long avgMicros, long p50Micros,
+                        long p95Micros, long p99Micros, long avgPayloadBytes, long p99PayloadBytes) {
+            this.operation = operation;
+            this.keyPrefix = keyPrefix;
+            this.calls = calls;
+            this.errors = errors;
+            this.avgMicros = avgMicros;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.avgPayloadBytes = avgPayloadBytes;
+            this.p99PayloadBytes = p99PayloadBytes;
+        }
+    }
+}
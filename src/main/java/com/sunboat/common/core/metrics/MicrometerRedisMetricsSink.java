@@ -0,0 +1,92 @@
+package com.sunboat.common.core.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer指标输出（classpath中存在Micrometer且容器中有MeterRegistry时生效）
+ * 指标：sunboat.redis.command（耗时，含p50/p95/p99）、sunboat.redis.command.errors、sunboat.redis.payload
+ */
+@Component
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class MicrometerRedisMetricsSink implements RedisMetricsSink {
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public MicrometerRedisMetricsSink(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registryProvider = registryProvider;
+    }
+
+    @Override
+    public void recordCall(String operation, String keyPrefix, long durationNanos, boolean error) {
+        Meters m = metersFor(operation, keyPrefix);
+        if (m == null) {
+            return;
+        }
+        m.timer.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (error) {
+            m.errors.increment();
+        }
+    }
+
+    @Override
+    public void recordError(String operation, String keyPrefix) {
+        Meters m = metersFor(operation, keyPrefix);
+        if (m != null) {
+            m.errors.increment();
+        }
+    }
+
+    @Override
+    public void recordPayload(String operation, String keyPrefix, int bytes) {
+        Meters m = metersFor(operation, keyPrefix);
+        if (m != null) {
+            m.payload.record(bytes);
+        }
+    }
+
+    private Meters metersFor(String operation, String keyPrefix) {
+        String id = operation + '|' + keyPrefix;
+        Meters m = meters.get(id);
+        if (m != null) {
+            return m;
+        }
+        MeterRegistry registry = registryProvider.getIfAvailable();
+        if (registry == null) {
+            return null;
+        }
+        return meters.computeIfAbsent(id, k -> new Meters(registry, operation, keyPrefix));
+    }
+
+    private static class Meters {
+        final Timer timer;
+        final Counter errors;
+        final DistributionSummary payload;
+
+        Meters(MeterRegistry registry, String operation, String keyPrefix) {
+            this.timer = Timer.builder("sunboat.redis.command")
+                    .tag("operation", operation).tag("prefix", keyPrefix)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry);
+            this.errors = Counter.builder("sunboat.redis.command.errors")
+                    .tag("operation", operation).tag("prefix", keyPrefix)
+                    .register(registry);
+            this.payload = DistributionSummary.builder("sunboat.redis.payload")
+                    .baseUnit("bytes")
+                    .tag("operation", operation).tag("prefix", keyPrefix)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.sunboat.common.core.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Redis操作指标收集入口
+ * 负责key前缀提取（限制标签基数）、慢操作日志，以及将数据分发到各RedisMetricsSink
+ */
+@Slf4j
+@Component
+public class RedisMetrics {
+
+    /**
+     * 超出前缀数量上限后统一使用的前缀
+     */
+    static final String OTHER_PREFIX = "other";
+
+    @Value("${sunboat.redis.metrics.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 慢操作阈值（毫秒），0表示不记录
+     */
+    @Value("${sunboat.redis.metrics.slow-threshold-millis:100}")
+    private long slowThresholdMillis;
+
+    /**
+     * 数据大小采样间隔：每N次调用采样1次，0表示不采样
+     */
+    @Value("${sunboat.redis.metrics.payload-sample-rate:64}")
+    private int payloadSampleRate;
+
+    /**
+     * 默认前缀提取时保留的分段数
+     */
+    @Value("${sunboat.redis.metrics.prefix-segments:1}")
+    private int prefixSegments;
+
+    @Value("${sunboat.redis.metrics.prefix-delimiter::}")
+    private String prefixDelimiter;
+
+    /**
+     * 不同前缀数量上限，防止标签基数膨胀
+     */
+    @Value("${sunboat.redis.metrics.max-prefixes:200}")
+    private int maxPrefixes;
+
+    @Autowired(required = false)
+    private List<RedisMetricsSink> sinks = Collections.emptyList();
+
+    private final Set<String> knownPrefixes = ConcurrentHashMap.newKeySet();
+
+    private final ThreadLocal<boolean[]> callFailed = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    private volatile Function<String, String> keyPrefixExtractor;
+
+    public boolean isEnabled() {
+        return enabled && !sinks.isEmpty();
+    }
+
+    /**
+     * 自定义key前缀提取规则，返回值作为指标标签，不应包含完整key
+     */
+    public void setKeyPrefixExtractor(Function<String, String> keyPrefixExtractor) {
+        this.keyPrefixExtractor = keyPrefixExtractor;
+    }
+
+    /**
+     * 开始一次调用，返回外层调用的失败标记以便嵌套调用结束后恢复
+     */
+    public boolean beginCall() {
+        boolean[] flag = callFailed.get();
+        boolean outer = flag[0];
+        flag[0] = false;
+        return outer;
+    }
+
+    /**
+     * 标记当前调用失败（用于工具类内部捕获并吞掉的异常）
+     */
+    public void markError() {
+        callFailed.get()[0] = true;
+    }
+
+    /**
+     * 结束一次调用并记录指标
+     * @param outer beginCall的返回值
+     */
+    public void endCall(String operation, String key, long durationNanos, boolean thrown, boolean outer) {
+        boolean[] flag = callFailed.get();
+        boolean error = thrown || flag[0];
+        flag[0] = outer;
+        String prefix = prefixOf(key);
+        for (RedisMetricsSink sink : sinks) {
+            sink.recordCall(operation, prefix, durationNanos, error);
+        }
+        if (slowThresholdMillis > 0 && durationNanos >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis)) {
+            log.warn("Redis慢操作 - 方法: {}, Key: {}, 耗时: {}ms", operation, key,
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        }
+    }
+
+    /**
+     * 直接记录一次耗时（不经过切面的调用链，如锁等待/持有时间）
+     */
+    public void record(String operation, String key, long durationNanos, boolean error) {
+        if (!isEnabled()) {
+            return;
+        }
+        String prefix = prefixOf(key);
+        for (RedisMetricsSink sink : sinks) {
+            sink.recordCall(operation, prefix, durationNanos, error);
+        }
+    }
+
+    /**
+     * 记录一次异步调用中被吞掉的失败
+     */
+    public void recordError(String operation, String key) {
+        if (!isEnabled()) {
+            return;
+        }
+        String prefix = prefixOf(key);
+        for (RedisMetricsSink sink : sinks) {
+            sink.recordError(operation, prefix);
+        }
+    }
+
+    /**
+     * 本次调用是否需要采样数据大小
+     */
+    public boolean shouldSamplePayload() {
+        return payloadSampleRate > 0 && ThreadLocalRandom.current().nextInt(payloadSampleRate) == 0;
+    }
+
+    /**
+     * 记录数据大小
+     */
+    public void recordPayload(String operation, String key, int bytes) {
+        String prefix = prefixOf(key);
+        for (RedisMetricsSink sink : sinks) {
+            sink.recordPayload(operation, prefix, bytes);
+        }
+    }
+
+    /**
+     * 提取key前缀，超出数量上限的新前缀统一归为other
+     */
+    String prefixOf(String key) {
+        if (key == null || key.isEmpty()) {
+            return "";
+        }
+        Function<String, String> extractor = keyPrefixExtractor;
+        String prefix = extractor != null ? extractor.apply(key) : defaultPrefix(key);
+        if (prefix == null || prefix.isEmpty()) {
+            return "";
+        }
+        if (knownPrefixes.contains(prefix)) {
+            return prefix;
+        }
+        if (knownPrefixes.size() >= maxPrefixes) {
+            return OTHER_PREFIX;
+        }
+        knownPrefixes.add(prefix);
+        return prefix;
+    }
+
+    /**
+     * 默认规则：保留前prefixSegments段，如 order:123:detail -> order
+     */
+    private String defaultPrefix(String key) {
+        int end = -1;
+        for (int i = 0; i < prefixSegments; i++) {
+            int index = key.indexOf(prefixDelimiter, end + 1);
+            if (index < 0) {
+                break;
+            }
+            end = index;
+        }
+        return end < 0 ? "" : key.substring(0, end);
+    }
+}
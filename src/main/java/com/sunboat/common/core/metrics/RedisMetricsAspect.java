@@ -0,0 +1,142 @@
+package com.sunboat.common.core.metrics;
+
+import com.sunboat.common.core.exception.BusinessException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis工具类指标切面
+ * 拦截RedisTemplateUtils、RedissonUtils、RedisAsyncUtils的公共方法，记录耗时、失败次数与采样的数据大小；
+ * 异步方法在Future完成时记录；在熔断切面外层执行，熔断拒绝的调用同样计入指标
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RedisMetricsAspect {
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Around("execution(public * com.sunboat.common.core.utils.RedisTemplateUtils.*(..))"
+            + " || execution(public * com.sunboat.common.core.utils.RedissonUtils.*(..))"
+            + " || execution(public * com.sunboat.common.core.utils.RedisAsyncUtils.*(..))")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!redisMetrics.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        String operation = joinPoint.getSignature().getName();
+        Object[] args = joinPoint.getArgs();
+        String key = keyOf(args);
+        if (CompletableFuture.class.isAssignableFrom(((MethodSignature) joinPoint.getSignature()).getReturnType())) {
+            return aroundAsync(joinPoint, operation, key);
+        }
+        boolean outer = redisMetrics.beginCall();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            // 回调（如分批遍历的consumer）抛出的业务异常不计为Redis错误
+            redisMetrics.endCall(operation, key, System.nanoTime() - start, !(e instanceof BusinessException), outer);
+            throw e;
+        }
+        redisMetrics.endCall(operation, key, System.nanoTime() - start, false, outer);
+        if (redisMetrics.shouldSamplePayload()) {
+            recordPayload(operation, key, args, result);
+        }
+        return result;
+    }
+
+    /**
+     * 异步方法：耗时计算到Future完成为止
+     */
+    private Object aroundAsync(ProceedingJoinPoint joinPoint, String operation, String key) throws Throwable {
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            boolean outer = redisMetrics.beginCall();
+            redisMetrics.endCall(operation, key, System.nanoTime() - start, true, outer);
+            throw e;
+        }
+        if (result != null) {
+            ((CompletableFuture<?>) result).whenComplete((value, e) -> {
+                boolean outer = redisMetrics.beginCall();
+                redisMetrics.endCall(operation, key, System.nanoTime() - start, e != null, outer);
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 第一个参数为key；批量操作取第一个key
+     */
+    private String keyOf(Object[] args) {
+        if (args.length == 0) {
+            return null;
+        }
+        Object first = args[0];
+        if (first instanceof String) {
+            return (String) first;
+        }
+        if (first instanceof Collection && !((Collection<?>) first).isEmpty()) {
+            return String.valueOf(((Collection<?>) first).iterator().next());
+        }
+        if (first instanceof Map && !((Map<?, ?>) first).isEmpty()) {
+            return String.valueOf(((Map<?, ?>) first).keySet().iterator().next());
+        }
+        return null;
+    }
+
+    /**
+     * 按值序列化器估算数据大小：写操作取除key和时间参数外的参数，读操作取返回值
+     */
+    @SuppressWarnings("unchecked")
+    private void recordPayload(String operation, String key, Object[] args, Object result) {
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        if (serializer == null) {
+            return;
+        }
+        int bytes = 0;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                if (args[i] != null && !(args[i] instanceof TimeUnit) && !(args[i] instanceof Number)) {
+                    bytes += sizeOf(serializer, args[i]);
+                }
+            }
+            if (result != null && !(result instanceof Boolean) && !(result instanceof Number)) {
+                bytes += sizeOf(serializer, result);
+            }
+        } catch (Exception e) {
+            return;
+        }
+        if (bytes > 0) {
+            redisMetrics.recordPayload(operation, key, bytes);
+        }
+    }
+
+    private int sizeOf(RedisSerializer<Object> serializer, Object value) {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        byte[] bytes = serializer.serialize(value);
+        return bytes == null ? 0 : bytes.length;
+    }
+}
@@ -0,0 +1,28 @@
+package com.sunboat.common.core.metrics;
+
+/**
+ * Redis操作指标输出端
+ * 实现类注册为Spring Bean后自动生效，可同时存在多个（如本地统计 + Micrometer）
+ */
+public interface RedisMetricsSink {
+
+    /**
+     * 记录一次调用
+     * @param operation 操作名（工具类方法名）
+     * @param keyPrefix key前缀（由RedisMetrics按前缀规则提取，不含完整key）
+     * @param durationNanos 耗时（纳秒）
+     * @param error 是否失败
+     */
+    void recordCall(String operation, String keyPrefix, long durationNanos, boolean error);
+
+    /**
+     * 单独记录一次被吞掉的失败（如异步读操作失败后降级为默认值）
+     */
+    void recordError(String operation, String keyPrefix);
+
+    /**
+     * 记录一次采样的数据大小
+     * @param bytes 序列化后的字节数
+     */
+    void recordPayload(String operation, String keyPrefix, int bytes);
+}
@@ -0,0 +1,448 @@
+package com.sunboat.common.core.mq;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.IdUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.batch.MessageBatch;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.postprocessor.GZipPostProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AMQP消息发送器
+ * 使用异步发布确认（需配置spring.rabbitmq.publisher-confirm-type=correlated），发送不等待确认，
+ * 未确认的消息数受max-in-flight窗口限制；nack、确认超时或发送异常时按退避重试，重试耗尽或消息无法路由
+ * （需配置spring.rabbitmq.publisher-returns=true）时以MQ_PUBLISH_FAILED业务异常结束返回的Future。
+ * 可选客户端批量：同一exchange+routingKey的消息按Spring AMQP的lengthHeader4格式合并为一条发送，
+ * 监听容器默认自动拆分；可选GZip压缩：超过阈值的消息体压缩后发送，消费端需配置GUnzipPostProcessor
+ * （或DelegatingDecompressingPostProcessor）作为afterReceivePostProcessors。
+ * 重试可能导致重复投递，消费端需幂等
+ */
+@Slf4j
+@Component
+public class AmqpPublisher {
+
+    @Autowired(required = false)
+    private ConnectionFactory connectionFactory;
+
+    @Autowired(required = false)
+    private MessageConverter messageConverter;
+
+    @Autowired(required = false)
+    private ObjectMapper objectMapper;
+
+    /**
+     * 已发送未确认（含批量缓冲中）的消息数上限
+     */
+    @Value("${sunboat.mq.publisher.max-in-flight:1000}")
+    private int maxInFlight;
+
+    /**
+     * 窗口已满时的最长等待时间（毫秒），超时后发送失败
+     */
+    @Value("${sunboat.mq.publisher.window-wait-millis:5000}")
+    private long windowWaitMillis;
+
+    /**
+     * 等待broker确认的超时时间（毫秒），超时按失败重试
+     */
+    @Value("${sunboat.mq.publisher.confirm-timeout-millis:10000}")
+    private long confirmTimeoutMillis;
+
+    @Value("${sunboat.mq.publisher.max-retries:3}")
+    private int maxRetries;
+
+    /**
+     * 重试退避基数（毫秒），第n次重试延迟n倍
+     */
+    @Value("${sunboat.mq.publisher.retry-backoff-millis:200}")
+    private long retryBackoffMillis;
+
+    @Value("${sunboat.mq.publisher.batch-enabled:false}")
+    private boolean batchEnabled;
+
+    /**
+     * 每批最多消息数
+     */
+    @Value("${sunboat.mq.publisher.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 每批最大字节数
+     */
+    @Value("${sunboat.mq.publisher.batch-buffer-limit:65536}")
+    private int batchBufferLimit;
+
+    /**
+     * 批次未满时的最长等待时间（毫秒）
+     */
+    @Value("${sunboat.mq.publisher.batch-timeout-millis:10}")
+    private long batchTimeoutMillis;
+
+    @Value("${sunboat.mq.publisher.compress-enabled:false}")
+    private boolean compressEnabled;
+
+    /**
+     * 消息体（批量时为整批）超过该字节数才压缩
+     */
+    @Value("${sunboat.mq.publisher.compress-threshold-bytes:2048}")
+    private int compressThresholdBytes;
+
+    private final Map<String, Delivery> outstanding = new ConcurrentHashMap<>();
+
+    private final Map<String, BatchBuffer> batches = new ConcurrentHashMap<>();
+
+    private final GZipPostProcessor gzip = new GZipPostProcessor();
+
+    private RabbitTemplate rabbitTemplate;
+
+    private MessageConverter converter;
+
+    private Semaphore window;
+
+    private boolean confirmsEnabled;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (connectionFactory == null) {
+            log.info("未配置RabbitMQ连接，AmqpPublisher不可用");
+            return;
+        }
+        converter = messageConverter != null ? messageConverter
+                : new Jackson2JsonMessageConverter(objectMapper != null ? objectMapper : new ObjectMapper().findAndRegisterModules());
+        // 独立的RabbitTemplate，避免占用应用RabbitTemplate唯一的ConfirmCallback
+        rabbitTemplate = new RabbitTemplate(connectionFactory);
+        rabbitTemplate.setMessageConverter(converter);
+        rabbitTemplate.setMandatory(connectionFactory.isPublisherReturns());
+        rabbitTemplate.setConfirmCallback(this::onConfirm);
+        confirmsEnabled = connectionFactory.isPublisherConfirms();
+        if (!confirmsEnabled) {
+            log.warn("未开启spring.rabbitmq.publisher-confirm-type=correlated，消息写入连接即视为发送成功");
+        }
+        window = new Semaphore(maxInFlight);
+        scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("amqp-publisher-", true));
+        long sweepMillis = Math.max(10, confirmTimeoutMillis / 4);
+        scheduler.scheduleWithFixedDelay(this::expireUnconfirmed, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        if (batchEnabled) {
+            scheduler.scheduleWithFixedDelay(this::flushExpiredBatches, batchTimeoutMillis, batchTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 关闭前发送缓冲中的批次并等待未确认的消息，超时未确认的消息Future以失败结束
+     */
+    @PreDestroy
+    public void destroy() {
+        if (scheduler == null) {
+            return;
+        }
+        for (BatchBuffer buffer : batches.values()) {
+            flushBatch(buffer);
+        }
+        long deadline = System.currentTimeMillis() + confirmTimeoutMillis;
+        while (!outstanding.isEmpty() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        scheduler.shutdownNow();
+        for (String id : new ArrayList<>(outstanding.keySet())) {
+            Delivery delivery = outstanding.remove(id);
+            if (delivery != null) {
+                fail(delivery, "应用关闭时仍未确认");
+            }
+        }
+    }
+
+    /**
+     * 异步发送消息
+     * @param payload 消息内容，为Message时原样发送，否则经MessageConverter转换（默认JSON）
+     * @return broker确认后完成；失败时以MQ_PUBLISH_FAILED业务异常结束
+     */
+    public CompletableFuture<Void> publish(String exchange, String routingKey, Object payload) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (rabbitTemplate == null) {
+            future.completeExceptionally(publishFailed("未配置RabbitMQ连接"));
+            return future;
+        }
+        Message message = payload instanceof Message ? (Message) payload : converter.toMessage(payload, new MessageProperties());
+        if (!window.tryAcquire()) {
+            if (batchEnabled) {
+                // 窗口已满时先发出缓冲中的批次，避免等待批次超时
+                flushBatch(batches.get(exchange + "\n" + routingKey));
+            }
+            try {
+                if (!window.tryAcquire(windowWaitMillis, TimeUnit.MILLISECONDS)) {
+                    future.completeExceptionally(publishFailed("未确认消息数已达上限"));
+                    return future;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(publishFailed("等待发送窗口时被中断"));
+                return future;
+            }
+        }
+        PendingMessage pending = new PendingMessage(message, future);
+        if (batchEnabled) {
+            addToBatch(exchange, routingKey, pending);
+        } else {
+            dispatch(exchange, routingKey, Collections.singletonList(pending));
+        }
+        return future;
+    }
+
+    /**
+     * 同步发送消息，等待broker确认
+     * @throws BusinessException 发送失败（MQ_PUBLISH_FAILED）
+     */
+    public void publishAndWait(String exchange, String routingKey, Object payload) {
+        try {
+            publish(exchange, routingKey, payload).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                throw (BusinessException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 已发送未确认的消息数（含批量缓冲中的消息）
+     */
+    public int getInFlight() {
+        return window == null ? 0 : maxInFlight - window.availablePermits();
+    }
+
+    // ------------------- 私有方法 -------------------
+
+    private void addToBatch(String exchange, String routingKey, PendingMessage pending) {
+        BatchBuffer buffer = batches.computeIfAbsent(exchange + "\n" + routingKey, k -> new BatchBuffer(exchange, routingKey));
+        List<PendingMessage> full = null;
+        synchronized (buffer) {
+            if (buffer.members.isEmpty()) {
+                buffer.startedAt = System.currentTimeMillis();
+            }
+            buffer.members.add(pending);
+            buffer.bytes += 4 + pending.message.getBody().length;
+            if (buffer.members.size() >= batchSize || buffer.bytes >= batchBufferLimit) {
+                full = buffer.drain();
+            }
+        }
+        if (full != null) {
+            dispatch(exchange, routingKey, full);
+        }
+    }
+
+    private void flushBatch(BatchBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        List<PendingMessage> members;
+        synchronized (buffer) {
+            members = buffer.drain();
+        }
+        dispatch(buffer.exchange, buffer.routingKey, members);
+    }
+
+    private void flushExpiredBatches() {
+        long now = System.currentTimeMillis();
+        for (BatchBuffer buffer : batches.values()) {
+            List<PendingMessage> members = null;
+            synchronized (buffer) {
+                if (!buffer.members.isEmpty() && now - buffer.startedAt >= batchTimeoutMillis) {
+                    members = buffer.drain();
+                }
+            }
+            if (members != null) {
+                dispatch(buffer.exchange, buffer.routingKey, members);
+            }
+        }
+    }
+
+    /**
+     * 组装（批量、压缩）后发送
+     */
+    private void dispatch(String exchange, String routingKey, List<PendingMessage> members) {
+        if (members.isEmpty()) {
+            return;
+        }
+        Message message = members.size() == 1 ? members.get(0).message : toBatchMessage(exchange, routingKey, members);
+        if (compressEnabled && message.getBody().length >= compressThresholdBytes) {
+            message = gzip.postProcessMessage(message);
+        }
+        send(new Delivery(exchange, routingKey, message, members));
+    }
+
+    private Message toBatchMessage(String exchange, String routingKey, List<PendingMessage> members) {
+        SimpleBatchingStrategy strategy = new SimpleBatchingStrategy(members.size(), Integer.MAX_VALUE, Long.MAX_VALUE);
+        MessageBatch batch = null;
+        for (PendingMessage member : members) {
+            batch = strategy.addToBatch(exchange, routingKey, member.message);
+        }
+        return batch.getMessage();
+    }
+
+    private void send(Delivery delivery) {
+        String id = IdUtil.fastSimpleUUID();
+        delivery.sentAt = System.currentTimeMillis();
+        outstanding.put(id, delivery);
+        try {
+            rabbitTemplate.send(delivery.exchange, delivery.routingKey, delivery.message, new CorrelationData(id));
+        } catch (RuntimeException e) {
+            if (outstanding.remove(id) != null) {
+                retryOrFail(delivery, e.getMessage());
+            }
+            return;
+        }
+        if (!confirmsEnabled && outstanding.remove(id) != null) {
+            complete(delivery);
+        }
+    }
+
+    private void onConfirm(CorrelationData correlationData, boolean ack, String cause) {
+        if (correlationData == null) {
+            return;
+        }
+        Delivery delivery = outstanding.remove(correlationData.getId());
+        if (delivery == null) {
+            // 已按超时处理
+            return;
+        }
+        ReturnedMessage returned = correlationData.getReturned();
+        if (!ack) {
+            retryOrFail(delivery, "broker拒绝：" + cause);
+        } else if (returned != null) {
+            fail(delivery, "消息无法路由：" + returned.getReplyText());
+        } else {
+            complete(delivery);
+        }
+    }
+
+    private void expireUnconfirmed() {
+        long expireBefore = System.currentTimeMillis() - confirmTimeoutMillis;
+        for (Map.Entry<String, Delivery> entry : outstanding.entrySet()) {
+            Delivery delivery = entry.getValue();
+            if (delivery.sentAt < expireBefore && outstanding.remove(entry.getKey(), delivery)) {
+                retryOrFail(delivery, "等待确认超时");
+            }
+        }
+    }
+
+    private void retryOrFail(Delivery delivery, String reason) {
+        if (delivery.attempts >= maxRetries) {
+            fail(delivery, reason);
+            return;
+        }
+        delivery.attempts++;
+        log.warn("消息发送失败，第{}次重试 - Exchange: {}, RoutingKey: {}, 原因: {}",
+                delivery.attempts, delivery.exchange, delivery.routingKey, reason);
+        try {
+            scheduler.schedule(() -> send(delivery), retryBackoffMillis * delivery.attempts, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            fail(delivery, reason);
+        }
+    }
+
+    private void complete(Delivery delivery) {
+        window.release(delivery.members.size());
+        for (PendingMessage member : delivery.members) {
+            member.future.complete(null);
+        }
+    }
+
+    private void fail(Delivery delivery, String reason) {
+        log.error("消息发送失败 - Exchange: {}, RoutingKey: {}, 消息数: {}, 原因: {}",
+                delivery.exchange, delivery.routingKey, delivery.members.size(), reason);
+        window.release(delivery.members.size());
+        BusinessException exception = publishFailed(reason);
+        for (PendingMessage member : delivery.members) {
+            member.future.completeExceptionally(exception);
+        }
+    }
+
+    private BusinessException publishFailed(String reason) {
+        return new BusinessException(ResultCodeEnum.MQ_PUBLISH_FAILED, ResultCodeEnum.MQ_PUBLISH_FAILED.getMessage() + "：" + reason);
+    }
+
+    private static class PendingMessage {
+        final Message message;
+        final CompletableFuture<Void> future;
+
+        PendingMessage(Message message, CompletableFuture<Void> future) {
+            this.message = message;
+            this.future = future;
+        }
+    }
+
+    /**
+     * 一次发送（单条或一批消息），重试时整体重发
+     */
+    private static class Delivery {
+        final String exchange;
+        final String routingKey;
+        final Message message;
+        final List<PendingMessage> members;
+        volatile long sentAt;
+        int attempts;
+
+        Delivery(String exchange, String routingKey, Message message, List<PendingMessage> members) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.message = message;
+            this.members = members;
+        }
+    }
+
+    private static class BatchBuffer {
+        final String exchange;
+        final String routingKey;
+        List<PendingMessage> members = new ArrayList<>();
+        int bytes;
+        long startedAt;
+
+        BatchBuffer(String exchange, String routingKey) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+        }
+
+        List<PendingMessage> drain() {
+            List<PendingMessage> drained = members;
+            members = new ArrayList<>();
+            bytes = 0;
+            return drained;
+        }
+    }
+}
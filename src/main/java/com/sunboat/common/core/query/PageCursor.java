@@ -0,0 +1,140 @@
+package com.sunboat.common.core.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.exception.BusinessException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 游标（Keyset）分页的游标编解码
+ * 游标内容为上一页最后一条记录的排序字段值，编码为URL安全的Base64字符串，对调用方不透明
+ * <p>
+ * 每个值附带类型标记，解码后保持原类型（Long不会变为Integer，日期不会变为字符串或数组）；
+ * 类型标记只映射到下列固定类型，不会按游标内容加载任意类：
+ * String、Integer、Long、Double、BigDecimal、BigInteger、Boolean、UUID、
+ * LocalDateTime、LocalDate、LocalTime、OffsetDateTime、Instant、Date；枚举按名称编码为String
+ */
+public final class PageCursor {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * 类型标记 -> 类型（顺序即编码时的匹配顺序）
+     */
+    private static final Map<String, Class<?>> TYPES = new LinkedHashMap<>();
+
+    static {
+        TYPES.put("s", String.class);
+        TYPES.put("i", Integer.class);
+        TYPES.put("l", Long.class);
+        TYPES.put("d", Double.class);
+        TYPES.put("n", BigDecimal.class);
+        TYPES.put("bi", BigInteger.class);
+        TYPES.put("b", Boolean.class);
+        TYPES.put("u", UUID.class);
+        TYPES.put("dt", LocalDateTime.class);
+        TYPES.put("da", LocalDate.class);
+        TYPES.put("t", LocalTime.class);
+        TYPES.put("odt", OffsetDateTime.class);
+        TYPES.put("in", Instant.class);
+        TYPES.put("ts", Date.class);
+    }
+
+    private PageCursor() {}
+
+    /**
+     * 编码排序字段值
+     * @param sortValues 上一页最后一条记录的排序字段值（按排序优先级）
+     */
+    public static String encode(Object... sortValues) {
+        return encode(Arrays.asList(sortValues));
+    }
+
+    /**
+     * 编码排序字段值，格式：[[类型标记, 值], ...]，null值编码为null
+     */
+    public static String encode(List<?> sortValues) {
+        ArrayNode values = OBJECT_MAPPER.createArrayNode();
+        for (Object value : sortValues) {
+            if (value == null) {
+                values.addNull();
+                continue;
+            }
+            if (value instanceof Enum) {
+                value = ((Enum<?>) value).name();
+            }
+            // 任意精度数值以文本编码，避免经过double丢失精度和小数位数
+            JsonNode node = value instanceof BigDecimal || value instanceof BigInteger
+                    ? OBJECT_MAPPER.getNodeFactory().textNode(value.toString())
+                    : OBJECT_MAPPER.valueToTree(value);
+            values.addArray().add(tagOf(value)).add(node);
+        }
+        try {
+            byte[] json = OBJECT_MAPPER.writeValueAsBytes(values);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new BusinessException(ResultCodeEnum.INTERNAL_SERVER_ERROR, "分页游标生成失败", e);
+        }
+    }
+
+    /**
+     * 解码游标，返回排序字段值；游标为空时返回null（表示第一页）
+     */
+    public static List<Object> decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII));
+            JsonNode values = OBJECT_MAPPER.readTree(json);
+            if (!values.isArray()) {
+                throw new IllegalArgumentException("游标格式错误");
+            }
+            List<Object> result = new ArrayList<>(values.size());
+            for (JsonNode value : values) {
+                if (value.isNull()) {
+                    result.add(null);
+                    continue;
+                }
+                Class<?> type = value.isArray() && value.size() == 2 ? TYPES.get(value.get(0).asText()) : null;
+                if (type == null) {
+                    throw new IllegalArgumentException("游标值类型未知");
+                }
+                result.add(OBJECT_MAPPER.treeToValue(value.get(1), type));
+            }
+            return result;
+        } catch (Exception e) {
+            throw new BusinessException(ResultCodeEnum.BAD_REQUEST, "分页游标无效", e);
+        }
+    }
+
+    private static String tagOf(Object value) {
+        for (Map.Entry<String, Class<?>> entry : TYPES.entrySet()) {
+            if (entry.getValue().isInstance(value)) {
+                return entry.getKey();
+            }
+        }
+        throw new BusinessException(ResultCodeEnum.INTERNAL_SERVER_ERROR,
+                "分页游标不支持的排序值类型：" + value.getClass().getName());
+    }
+}
@@ -1,17 +1,32 @@
 package com.sunboat.common.core.query;
 
 //import io.swagger.annotations.ApiModelProperty;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.exception.BusinessException;
 import lombok.Data;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * 分页查询基础类
+ * 支持两种模式：页码模式（OFFSET/LIMIT，受最大偏移量限制）和游标模式（按上一页最后一条记录的排序键定位）
  */
 @Data
 public class PageQuery implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * 每页最大条数，超出时按最大值处理，由 {@link PageQueryConfigurer} 按配置设置
+     */
+    private static volatile int maxPageSize = PageQueryConfigurer.DEFAULT_MAX_PAGE_SIZE;
+
+    /**
+     * 页码模式最大偏移量，超出时拒绝请求，深分页请使用游标模式；由 {@link PageQueryConfigurer} 按配置设置
+     */
+    private static volatile int maxOffset = PageQueryConfigurer.DEFAULT_MAX_OFFSET;
+
     /**
      * 当前页码，默认第1页
      */
@@ -37,9 +52,60 @@ public class PageQuery implements Serializable {
     private String isAsc = "asc";
 
     /**
-     * 计算分页起始位置
+     * 分页游标（游标模式），为上一页返回的nextCursor，第一页为空
      */
+//    @ApiModelProperty(value = "分页游标")
+    private String cursor;
+
+    /**
+     * 每页条数（不超过最大条数）
+     */
+    public Integer getPageSize() {
+        return pageSize == null ? null : Math.min(pageSize, maxPageSize);
+    }
+
+    /**
+     * 计算分页起始位置（不校验深度，查询前需调用 {@link #validate()}）
+     */
+    @JsonIgnore
     public Integer getOffset() {
-        return (pageNum - 1) * pageSize;
+        return (int) Math.min((long) (pageNum - 1) * getPageSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * 校验分页参数：页码和条数须为正数，页码模式下偏移量不超过最大偏移量
+     * 在Service层查询前调用，校验失败抛出BAD_REQUEST业务异常
+     */
+    public void validate() {
+        if (pageNum == null || pageNum < 1 || pageSize == null || pageSize < 1) {
+            throw new BusinessException(ResultCodeEnum.BAD_REQUEST, "分页参数无效");
+        }
+        if ((cursor == null || cursor.isEmpty()) && (long) (pageNum - 1) * getPageSize() > maxOffset) {
+            throw new BusinessException(ResultCodeEnum.BAD_REQUEST, "分页过深，请使用游标分页");
+        }
+    }
+
+    /**
+     * 游标模式下查询的条数：多查一条用于判断是否还有下一页
+     */
+    @JsonIgnore
+    public Integer getFetchSize() {
+        return getPageSize() + 1;
+    }
+
+    /**
+     * 解析游标中的排序键值，第一页返回null
+     */
+    @JsonIgnore
+    public List<Object> getCursorValues() {
+        return PageCursor.decode(cursor);
+    }
+
+    static void setMaxPageSize(int maxPageSize) {
+        PageQuery.maxPageSize = maxPageSize;
+    }
+
+    static void setMaxOffset(int maxOffset) {
+        PageQuery.maxOffset = maxOffset;
     }
 }
@@ -0,0 +1,34 @@
+package com.sunboat.common.core.query;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * 分页查询限制配置
+ * sunboat.page.max-page-size：每页最大条数，超出时按最大值处理
+ * sunboat.page.max-offset：页码模式最大偏移量，超出时拒绝请求
+ */
+@Component
+public class PageQueryConfigurer {
+
+    static final int DEFAULT_MAX_PAGE_SIZE = 1000;
+
+    static final int DEFAULT_MAX_OFFSET = 100000;
+
+    @Value("${sunboat.page.max-page-size:" + DEFAULT_MAX_PAGE_SIZE + "}")
+    private int maxPageSize;
+
+    @Value("${sunboat.page.max-offset:" + DEFAULT_MAX_OFFSET + "}")
+    private int maxOffset;
+
+    @PostConstruct
+    public void init() {
+        if (maxPageSize < 1 || maxOffset < 0) {
+            throw new IllegalArgumentException("分页限制配置无效：max-page-size=" + maxPageSize + ", max-offset=" + maxOffset);
+        }
+        PageQuery.setMaxPageSize(maxPageSize);
+        PageQuery.setMaxOffset(maxOffset);
+    }
+}
@@ -0,0 +1,247 @@
+package com.sunboat.common.core.ratelimit;
+
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.exception.BusinessException;
+import com.sunboat.common.core.utils.RedissonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于Redis令牌桶的集群限流
+ * 令牌桶状态保存在Redis中，由Lua脚本原子地补充与扣减；各节点每次批量预取令牌并在本地扣减，
+ * 大部分请求无需访问Redis。预取的令牌只在leaseMillis内有效，以此限制集群整体的超发量，
+ * 过期未用完的令牌在下次预取时归还到桶中，并按上次的使用情况自适应调整预取数量；
+ * 令牌不足时按补充速率估算等待时间，期间本地直接拒绝，避免限流时反复访问Redis
+ */
+@Slf4j
+@Component
+public class DistributedRateLimiter {
+
+    private static final String KEY_PREFIX = "sunboat:rate-limit:";
+
+    /**
+     * 令牌桶脚本
+     * KEYS[1]：桶key；ARGV：每毫秒补充令牌数、桶容量、期望预取数、最少需要数、过期时间（毫秒）、归还的令牌数
+     * 返回：大于0为获得的令牌数；小于等于0为令牌不足，绝对值为预计等待毫秒数
+     * <p>
+     * 脚本使用Redis服务端时间（TIME）后再写入，Redis 5以下需先开启命令复制（replicate_commands），
+     * 否则会因非确定性命令后写入而报错；Redis 5及以上默认即为命令复制，该调用无副作用
+     */
+    private static final String TOKEN_BUCKET_SCRIPT =
+            "redis.replicate_commands() "
+                    + "local rate = tonumber(ARGV[1]) "
+                    + "local capacity = tonumber(ARGV[2]) "
+                    + "local requested = tonumber(ARGV[3]) "
+                    + "local minimum = tonumber(ARGV[4]) "
+                    + "local returned = tonumber(ARGV[6]) "
+                    + "local t = redis.call('TIME') "
+                    + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) "
+                    + "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts') "
+                    + "local tokens = tonumber(state[1]) "
+                    + "local ts = tonumber(state[2]) "
+                    + "if tokens == nil or ts == nil then tokens = capacity ts = now end "
+                    + "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate + returned) "
+                    + "local granted = 0 "
+                    + "if tokens >= minimum then granted = math.min(requested, math.floor(tokens)) end "
+                    + "tokens = tokens - granted "
+                    + "redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now)) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[5]) "
+                    + "if granted > 0 then return granted end "
+                    + "return -math.ceil((minimum - tokens) / rate)";
+
+    @Autowired
+    private RedissonUtils redissonUtils;
+
+    /**
+     * 默认每次预取的令牌数
+     */
+    @Value("${sunboat.rate-limit.batch-size:10}")
+    private int defaultBatchSize;
+
+    /**
+     * 默认预取令牌的本地有效期（毫秒）
+     */
+    @Value("${sunboat.rate-limit.lease-millis:200}")
+    private long defaultLeaseMillis;
+
+    /**
+     * Redis不可用时是否放行
+     */
+    @Value("${sunboat.rate-limit.fail-open:true}")
+    private boolean failOpen;
+
+    /**
+     * 本地令牌池数量上限，达到上限时清理空闲的令牌池，仍不足时清理部分活跃的令牌池，直至上限的3/4
+     */
+    @Value("${sunboat.rate-limit.max-local-keys:10000}")
+    private int maxLocalKeys;
+
+    private final Map<String, LocalPermits> localPermits = new ConcurrentHashMap<>();
+
+    /**
+     * 是否有线程正在清理本地令牌池
+     */
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * 尝试获取1个令牌
+     * @param key 限流对象（如租户ID、API Key），相同key共享同一个令牌桶
+     * @param rule 限流规则
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(String key, RateLimitRule rule) {
+        return tryAcquire(key, rule, 1);
+    }
+
+    /**
+     * 尝试获取指定数量的令牌
+     */
+    public boolean tryAcquire(String key, RateLimitRule rule, int permits) {
+        if (permits <= 0) {
+            return true;
+        }
+        LocalPermits local = localPermits.get(key);
+        if (local == null) {
+            evictIdleIfNecessary();
+            local = localPermits.computeIfAbsent(key, k -> new LocalPermits());
+        }
+        long now = System.currentTimeMillis();
+        if (local.tryTake(permits, now)) {
+            return true;
+        }
+        if (now < local.deniedUntil) {
+            return false;
+        }
+        synchronized (local) {
+            now = System.currentTimeMillis();
+            if (local.tryTake(permits, now)) {
+                return true;
+            }
+            if (now < local.deniedUntil) {
+                return false;
+            }
+            return lease(key, rule, permits, local, now);
+        }
+    }
+
+    /**
+     * 获取1个令牌，失败时抛出TOO_MANY_REQUESTS业务异常
+     */
+    public void acquire(String key, RateLimitRule rule) {
+        if (!tryAcquire(key, rule, 1)) {
+            throw BusinessException.of(ResultCodeEnum.TOO_MANY_REQUESTS);
+        }
+    }
+
+    private boolean lease(String key, RateLimitRule rule, int permits, LocalPermits local, long now) {
+        long leaseMillis = rule.getLeaseMillis() > 0 ? rule.getLeaseMillis() : defaultLeaseMillis;
+        long maxLeaseSize = leaseSize(rule, leaseMillis);
+        // 上次预取已过期：未用完的令牌归还到桶中，并缩小下次预取数量；未过期但已用完则扩大预取数量
+        long returned = 0;
+        if (local.deadline > 0) {
+            if (now >= local.deadline) {
+                returned = local.available.getAndSet(0);
+                if (returned > 0) {
+                    local.leaseSize = local.leaseSize / 2;
+                }
+            } else {
+                local.leaseSize = local.leaseSize * 2;
+            }
+        }
+        local.leaseSize = Math.max(1, Math.min(maxLeaseSize, local.leaseSize > 0 ? local.leaseSize : maxLeaseSize));
+        long requested = Math.max(permits, local.leaseSize);
+        long ttlMillis = (long) Math.ceil(rule.getBurst() / rule.permitsPerMillis()) + 1000;
+        Long result;
+        try {
+            result = redissonUtils.evalScript(Collections.singletonList(KEY_PREFIX + key), TOKEN_BUCKET_SCRIPT,
+                    RScript.ReturnType.INTEGER, String.valueOf(rule.permitsPerMillis()), String.valueOf(rule.getBurst()),
+                    String.valueOf(requested), String.valueOf(permits), String.valueOf(ttlMillis),
+                    String.valueOf(returned));
+        } catch (Exception e) {
+            log.warn("限流令牌获取失败 - Key: {}, 异常: {}", key, e.getMessage());
+            return failOpen;
+        }
+        if (result == null || result <= 0) {
+            long waitMillis = result == null ? 0 : -result;
+            local.deniedUntil = now + Math.min(Math.max(waitMillis, 1), leaseMillis);
+            return false;
+        }
+        local.available.addAndGet(result - permits);
+        local.deadline = now + leaseMillis;
+        return true;
+    }
+
+    /**
+     * 单次预取数量上限：不超过有效期内按速率可补充的令牌数，避免低速率规则被单个节点一次取空
+     */
+    private long leaseSize(RateLimitRule rule, long leaseMillis) {
+        int batchSize = rule.getBatchSize() > 0 ? rule.getBatchSize() : defaultBatchSize;
+        long refillable = (long) (rule.permitsPerMillis() * leaseMillis);
+        return Math.max(1, Math.min(batchSize, refillable));
+    }
+
+    /**
+     * 达到上限时一次清理到上限的3/4，之后至少新增1/4上限的key才会再次清理，均摊到每个新key为常数开销；
+     * 同一时刻只有一个线程清理，其他线程不等待
+     */
+    private void evictIdleIfNecessary() {
+        if (localPermits.size() < maxLocalKeys || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int target = maxLocalKeys / 4 * 3;
+            long now = System.currentTimeMillis();
+            localPermits.values().removeIf(local -> now >= local.deadline && now >= local.deniedUntil);
+            // 空闲的令牌池不足时清理部分活跃的令牌池，其预取的令牌作废
+            Iterator<LocalPermits> iterator = localPermits.values().iterator();
+            while (localPermits.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * 本节点预取的令牌
+     */
+    private static class LocalPermits {
+        final AtomicLong available = new AtomicLong();
+        /**
+         * 预取令牌的过期时间
+         */
+        volatile long deadline;
+        /**
+         * 令牌不足时，在此时间前直接拒绝
+         */
+        volatile long deniedUntil;
+        /**
+         * 下次预取的数量，按上次预取的使用情况调整，只在持有锁时读写
+         */
+        long leaseSize;
+
+        boolean tryTake(int permits, long now) {
+            if (now >= deadline) {
+                return false;
+            }
+            long current;
+            while ((current = available.get()) >= permits) {
+                if (available.compareAndSet(current, current - permits)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
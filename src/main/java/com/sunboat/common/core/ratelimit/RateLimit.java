@@ -0,0 +1,58 @@
+package com.sunboat.common.core.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 方法级集群限流，超出限制时抛出TOO_MANY_REQUESTS业务异常
+ * 示例：@RateLimit(key = "#tenantId", permits = 100)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimit {
+
+    /**
+     * 限流名称，默认为 类名.方法名
+     */
+    String name() default "";
+
+    /**
+     * 限流对象的SpEL表达式（如 #tenantId、#request.apiKey），为空时整个方法共享一个令牌桶
+     */
+    String key() default "";
+
+    /**
+     * 每个周期的令牌数
+     */
+    long permits();
+
+    /**
+     * 周期
+     */
+    long period() default 1;
+
+    /**
+     * 周期单位
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * 桶容量，0表示等于permits
+     */
+    long burst() default 0;
+
+    /**
+     * 每次预取的令牌数，1表示精确模式，0表示使用全局配置
+     */
+    int batchSize() default 0;
+
+    /**
+     * 限流时的提示信息，为空时使用错误码默认信息
+     */
+    String message() default "";
+}
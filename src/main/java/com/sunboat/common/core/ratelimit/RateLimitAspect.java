@@ -0,0 +1,58 @@
+package com.sunboat.common.core.ratelimit;
+
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.exception.BusinessException;
+import com.sunboat.common.core.utils.SpelKeyResolver;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link RateLimit}注解切面
+ */
+@Aspect
+@Component
+public class RateLimitAspect {
+
+    @Autowired
+    private DistributedRateLimiter rateLimiter;
+
+    @Autowired
+    private SpelKeyResolver spelKeyResolver;
+
+    /**
+     * 方法 -> 限流规则，避免每次调用重复构建
+     */
+    private final Map<Method, RateLimitRule> rules = new ConcurrentHashMap<>();
+
+    @Around("@annotation(rateLimit)")
+    public Object around(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String name = rateLimit.name().isEmpty()
+                ? method.getDeclaringClass().getSimpleName() + "." + method.getName() : rateLimit.name();
+        String key = spelKeyResolver.resolve(rateLimit.key(), method, joinPoint.getArgs());
+        RateLimitRule rule = rules.computeIfAbsent(method, m -> toRule(rateLimit));
+        if (!rateLimiter.tryAcquire(key.isEmpty() ? name : name + ":" + key, rule)) {
+            throw rateLimit.message().isEmpty()
+                    ? BusinessException.of(ResultCodeEnum.TOO_MANY_REQUESTS)
+                    : new BusinessException(ResultCodeEnum.TOO_MANY_REQUESTS, rateLimit.message());
+        }
+        return joinPoint.proceed();
+    }
+
+    private static RateLimitRule toRule(RateLimit rateLimit) {
+        RateLimitRule rule = RateLimitRule.of(rateLimit.permits(), rateLimit.period(), rateLimit.unit())
+                .batchSize(rateLimit.batchSize());
+        if (rateLimit.burst() > 0) {
+            rule.burst(rateLimit.burst());
+        }
+        return rule;
+    }
+}
@@ -0,0 +1,90 @@
+package com.sunboat.common.core.ratelimit;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流规则（令牌桶）
+ * 每period补充permits个令牌，桶容量为burst；
+ * batchSize为本节点每次从Redis预取的令牌数，越大Redis往返越少，但集群整体的瞬时精度越低
+ */
+@Getter
+public class RateLimitRule {
+
+    /**
+     * 每个周期的令牌数
+     */
+    private final long permits;
+
+    /**
+     * 周期（毫秒）
+     */
+    private final long periodMillis;
+
+    /**
+     * 桶容量（允许的突发量），默认等于permits
+     */
+    private long burst;
+
+    /**
+     * 每次预取的令牌数，1表示每次都访问Redis（精确模式），0表示使用全局配置
+     */
+    private int batchSize;
+
+    /**
+     * 预取令牌在本地的最长保留时间（毫秒），超时未用完的令牌在下次预取时归还到桶中，0表示使用全局配置
+     */
+    private long leaseMillis;
+
+    private RateLimitRule(long permits, long periodMillis) {
+        if (permits <= 0 || periodMillis <= 0) {
+            throw new IllegalArgumentException("permits和period必须大于0");
+        }
+        this.permits = permits;
+        this.periodMillis = periodMillis;
+        this.burst = permits;
+    }
+
+    /**
+     * 创建规则
+     * @param permits 每个周期的令牌数
+     * @param period 周期
+     * @param unit 周期单位
+     */
+    public static RateLimitRule of(long permits, long period, TimeUnit unit) {
+        return new RateLimitRule(permits, unit.toMillis(period));
+    }
+
+    /**
+     * 每秒permits个令牌
+     */
+    public static RateLimitRule perSecond(long permits) {
+        return of(permits, 1, TimeUnit.SECONDS);
+    }
+
+    public RateLimitRule burst(long burst) {
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst必须大于0");
+        }
+        this.burst = burst;
+        return this;
+    }
+
+    public RateLimitRule batchSize(int batchSize) {
+        this.batchSize = Math.max(0, batchSize);
+        return this;
+    }
+
+    public RateLimitRule leaseMillis(long leaseMillis) {
+        this.leaseMillis = Math.max(0, leaseMillis);
+        return this;
+    }
+
+    /**
+     * 每毫秒补充的令牌数
+     */
+    public double permitsPerMillis() {
+        return (double) permits / periodMillis;
+    }
+}
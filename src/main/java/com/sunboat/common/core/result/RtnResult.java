@@ -2,10 +2,13 @@ package com.sunboat.common.core.result;
 
 
 import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.query.PageCursor;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * 统一返回结果封装
@@ -35,6 +38,12 @@ public class RtnResult<T> implements Serializable {
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private PageInfo pageInfo;
 
+    /**
+     * 游标分页信息，游标分页查询时才返回
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private CursorInfo cursorInfo;
+
     /**
      * 私有构造方法
      */
@@ -60,6 +69,28 @@ public class RtnResult<T> implements Serializable {
         return rtnResult;
     }
 
+    /**
+     * 带游标分页信息的成功返回（不统计总数）
+     */
+    public static <T> RtnResult<T> success(T data, String nextCursor, boolean hasMore) {
+        RtnResult<T> rtnResult = success(data);
+        rtnResult.cursorInfo = new CursorInfo(nextCursor, hasMore);
+        return rtnResult;
+    }
+
+    /**
+     * 游标分页成功返回
+     * @param rows 按PageQuery.getFetchSize()多查一条的结果
+     * @param pageSize 每页条数
+     * @param sortKeyExtractor 提取记录排序键（与查询排序字段顺序一致），用于生成下一页游标
+     */
+    public static <E> RtnResult<List<E>> cursorPage(List<E> rows, int pageSize, Function<E, List<?>> sortKeyExtractor) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? PageCursor.encode(sortKeyExtractor.apply(page.get(page.size() - 1))) : null;
+        return success(page, nextCursor, hasMore);
+    }
+
     /**
      * 失败返回
      */
@@ -118,5 +149,27 @@ public class RtnResult<T> implements Serializable {
             this.totalPages = (int) Math.ceil((double) total / pageSize);
         }
     }
+
+    /**
+     * 游标分页信息内部类
+     */
+    @Data
+    public static class CursorInfo implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 下一页游标，没有下一页时为null
+         */
+        private String nextCursor;
+
+        /**
+         * 是否还有下一页
+         */
+        private boolean hasMore;
+
+        public CursorInfo(String nextCursor, boolean hasMore) {
+            this.nextCursor = nextCursor;
+            this.hasMore = hasMore;
+        }
+    }
 }
-    
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.sunboat.common.core.result;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * 预序列化的固定返回结果
+ * 每个ResultCodeEnum的失败返回在启动时序列化一次，之后直接写出字节，
+ * 避免错误高峰时反复创建RtnResult并执行Jackson序列化；
+ * 使用容器中的ObjectMapper，输出与正常返回完全一致
+ */
+@Component
+public class RtnResultResponseCache {
+
+    @Autowired(required = false)
+    private ObjectMapper objectMapper;
+
+    /**
+     * 按ResultCodeEnum序号索引，元素均为ResponseEntity&lt;byte[]&gt;
+     */
+    private ResponseEntity<?>[] failResponses;
+
+    @PostConstruct
+    public void init() {
+        if (objectMapper == null) {
+            objectMapper = new ObjectMapper();
+        }
+        ResultCodeEnum[] resultCodes = ResultCodeEnum.values();
+        failResponses = new ResponseEntity<?>[resultCodes.length];
+        for (ResultCodeEnum resultCode : resultCodes) {
+            failResponses[resultCode.ordinal()] = toResponse(RtnResult.fail(resultCode));
+        }
+    }
+
+    /**
+     * 使用枚举默认信息的失败返回
+     */
+    public ResponseEntity<byte[]> fail(ResultCodeEnum resultCode) {
+        return failResponse(resultCode);
+    }
+
+    /**
+     * 错误码与信息均与某个枚举一致时返回预序列化结果，否则返回null
+     */
+    public ResponseEntity<byte[]> fail(int code, String message) {
+        ResultCodeEnum resultCode = ResultCodeEnum.fromCode(code);
+        if (resultCode == null || !resultCode.getMessage().equals(message)) {
+            return null;
+        }
+        return failResponse(resultCode);
+    }
+
+    /**
+     * 将任意固定结果序列化为可复用的响应（供其他固定信息的场景启动时调用）
+     */
+    public ResponseEntity<byte[]> toResponse(RtnResult<?> result) {
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(objectMapper.writeValueAsBytes(result));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("RtnResult序列化失败", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<byte[]> failResponse(ResultCodeEnum resultCode) {
+        return (ResponseEntity<byte[]>) failResponses[resultCode.ordinal()];
+    }
+}
@@ -0,0 +1,203 @@
+package com.sunboat.common.core.result;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.exception.BusinessException;
+import com.sunboat.common.core.exception.GlobalExceptionHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 流式统一返回结果，用于导出等大数据量接口
+ * <p>
+ * 数据逐条序列化并直接写入响应流，内存占用与批次大小相关而与结果总量无关。
+ * JSON_ARRAY格式先输出data数组，再输出code/message/pageInfo，
+ * 因此中途出错时仍能在同一响应中给出与GlobalExceptionHandler一致的错误码和消息；
+ * NDJSON格式每行一条数据，最后一行为包含code/message/pageInfo的结果行。
+ * <p>
+ * 控制器直接返回{@link #toResponseEntity()}即可。
+ */
+@Slf4j
+public class StreamingRtnResult<T> implements StreamingResponseBody {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    /**
+     * 输出格式
+     */
+    public enum Format {
+        /**
+         * 单个JSON对象，data为数组
+         */
+        JSON_ARRAY,
+        /**
+         * 每行一个JSON
+         */
+        NDJSON
+    }
+
+    private final Iterator<T> iterator;
+
+    private final AutoCloseable resource;
+
+    private final Format format;
+
+    private RtnResult.PageInfo pageInfo;
+
+    private ObjectMapper objectMapper = DEFAULT_OBJECT_MAPPER;
+
+    private int flushSize = 100;
+
+    private StreamingRtnResult(Iterator<T> iterator, AutoCloseable resource, Format format) {
+        this.iterator = iterator;
+        this.resource = resource;
+        this.format = format;
+    }
+
+    /**
+     * JSON数组格式
+     */
+    public static <T> StreamingRtnResult<T> jsonArray(Iterator<T> iterator) {
+        return new StreamingRtnResult<>(iterator, null, Format.JSON_ARRAY);
+    }
+
+    /**
+     * JSON数组格式，写完后关闭Stream
+     */
+    public static <T> StreamingRtnResult<T> jsonArray(Stream<T> stream) {
+        return new StreamingRtnResult<>(stream.iterator(), stream, Format.JSON_ARRAY);
+    }
+
+    /**
+     * NDJSON格式
+     */
+    public static <T> StreamingRtnResult<T> ndjson(Iterator<T> iterator) {
+        return new StreamingRtnResult<>(iterator, null, Format.NDJSON);
+    }
+
+    /**
+     * NDJSON格式，写完后关闭Stream
+     */
+    public static <T> StreamingRtnResult<T> ndjson(Stream<T> stream) {
+        return new StreamingRtnResult<>(stream.iterator(), stream, Format.NDJSON);
+    }
+
+    /**
+     * 设置分页信息
+     */
+    public StreamingRtnResult<T> pageInfo(long total, int pageNum, int pageSize) {
+        this.pageInfo = new RtnResult.PageInfo(total, pageNum, pageSize);
+        return this;
+    }
+
+    /**
+     * 使用指定的ObjectMapper（建议传入Spring容器中的实例以保持序列化配置一致）
+     */
+    public StreamingRtnResult<T> objectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        return this;
+    }
+
+    /**
+     * 每写入多少条刷新一次输出流
+     */
+    public StreamingRtnResult<T> flushSize(int flushSize) {
+        this.flushSize = Math.max(1, flushSize);
+        return this;
+    }
+
+    /**
+     * 包装为响应实体，设置对应的Content-Type
+     */
+    public ResponseEntity<StreamingResponseBody> toResponseEntity() {
+        MediaType contentType = format == Format.NDJSON ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        return ResponseEntity.ok().contentType(contentType).body(this);
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // NDJSON自行输出换行，不使用默认的根值分隔符（空格）
+        generator.setRootValueSeparator(null);
+        try {
+            if (format == Format.JSON_ARRAY) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("data");
+            }
+            RtnResult<Void> outcome = writeData(generator);
+            if (format == Format.JSON_ARRAY) {
+                generator.writeEndArray();
+                writeEnvelope(generator, outcome);
+                generator.writeEndObject();
+            } else {
+                generator.writeStartObject();
+                writeEnvelope(generator, outcome);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        } finally {
+            generator.close();
+            closeResource();
+        }
+    }
+
+    /**
+     * 逐条写出数据，迭代数据源出错时返回失败结果，写响应流出错（如客户端断开）时直接抛出
+     */
+    private RtnResult<Void> writeData(JsonGenerator generator) throws IOException {
+        int count = 0;
+        while (true) {
+            T element;
+            try {
+                if (!iterator.hasNext()) {
+                    return RtnResult.success(null);
+                }
+                element = iterator.next();
+            } catch (BusinessException e) {
+                log.error("流式响应已输出{}条，业务异常：{}", count, e.getMessage());
+                return GlobalExceptionHandler.toFailResult(e);
+            } catch (Exception e) {
+                log.error("流式响应已输出{}条，发生未知异常：", count, e);
+                return GlobalExceptionHandler.toFailResult(e);
+            }
+            generator.writeObject(element);
+            if (format == Format.NDJSON) {
+                generator.writeRaw('\n');
+            }
+            if (++count % flushSize == 0) {
+                generator.flush();
+            }
+        }
+    }
+
+    private void writeEnvelope(JsonGenerator generator, RtnResult<Void> outcome) throws IOException {
+        generator.writeNumberField("code", outcome.getCode());
+        generator.writeStringField("message", outcome.getMessage());
+        if (pageInfo != null && outcome.getCode() == ResultCodeEnum.SUCCESS.getCode()) {
+            generator.writeObjectField("pageInfo", pageInfo);
+        }
+    }
+
+    private void closeResource() {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            log.warn("流式响应关闭数据源失败：{}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.sunboat.common.core.serializer;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.ClassUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 紧凑二进制Redis序列化器
+ * <p>
+ * 格式：魔数(1字节) + 标志位(1字节) + 负载；负载首字节为类型标记，
+ * 常用基础类型直接编码，其余对象使用Smile二进制编码，根对象类型通过注册表中的ID表示（未注册时写入类名），
+ * 根对象本身不再写入@class。
+ * 嵌套对象与GenericJackson2JsonRedisSerializer一样启用默认类型信息（@class），
+ * 集合元素、Map值和Object字段中的对象可还原为原类型。
+ * <p>
+ * 按类名加载的类型默认拒绝：只允许java.*、已注册类型和 {@link #setTrustedPackages(String...)} 配置的包，
+ * 写入不受信任的根类型时直接抛出异常，避免写入后无法读取。
+ * 负载超过阈值时使用Deflater(BEST_SPEED)压缩，并通过标志位标识。
+ * <p>
+ * 整数以十进制文本写入（不带魔数），保证INCR/INCRBY等命令仍可直接操作；
+ * 不以魔数开头的数据交给旧序列化器读取，新旧格式可在灰度期间共存；
+ * 灰度时可先关闭写入新格式（{@link #setWriteCompact(boolean)}），所有节点升级后再开启。
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 魔数：不是合法JSON首字节，也不是JDK序列化魔数（0xAC）
+     */
+    private static final byte MAGIC = (byte) 0xCE;
+
+    private static final byte FLAG_COMPRESSED = 0x01;
+
+    private static final byte TYPE_STRING = 0x01;
+    private static final byte TYPE_DOUBLE = 0x04;
+    private static final byte TYPE_BOOLEAN = 0x05;
+    private static final byte TYPE_BYTES = 0x06;
+    private static final byte TYPE_REGISTERED = 0x10;
+    private static final byte TYPE_CLASS_NAME = 0x11;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    private final ObjectMapper smileMapper;
+
+    private final RedisSerializer<Object> legacySerializer;
+
+    private final Map<Integer, Class<?>> idToClass = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Integer> classToId = new ConcurrentHashMap<>();
+
+    /**
+     * 允许按类名反序列化的包前缀；java.*及已注册类型始终允许，其余类型默认拒绝
+     */
+    private volatile List<String> trustedPackages = Collections.emptyList();
+
+    /**
+     * 压缩阈值（字节），负载不小于该值时尝试压缩
+     */
+    private volatile int compressThreshold = 1024;
+
+    /**
+     * 是否写入新格式
+     */
+    private volatile boolean writeCompact = true;
+
+    /**
+     * 使用GenericJackson2JsonRedisSerializer读取旧数据
+     */
+    public CompactRedisSerializer() {
+        this(new GenericJackson2JsonRedisSerializer());
+    }
+
+    /**
+     * @param legacySerializer 旧数据（非本格式）使用的序列化器
+     */
+    public CompactRedisSerializer(RedisSerializer<Object> legacySerializer) {
+        SmileFactory smileFactory = new SmileFactory();
+        smileFactory.disable(SmileGenerator.Feature.WRITE_HEADER);
+        smileFactory.disable(SmileParser.Feature.REQUIRE_HEADER);
+        this.smileMapper = new ObjectMapper(smileFactory).findAndRegisterModules()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.smileMapper.setDefaultTyping(new TypeResolverBuilder(new TrustedTypeValidator()));
+        this.legacySerializer = legacySerializer;
+    }
+
+    /**
+     * 注册类型ID，ID在所有共享数据的服务间必须保持一致
+     */
+    public CompactRedisSerializer register(int id, Class<?> type) {
+        Class<?> existing = idToClass.putIfAbsent(id, type);
+        if (existing != null && existing != type) {
+            throw new IllegalArgumentException("类型ID重复注册：" + id + " -> " + existing.getName());
+        }
+        classToId.put(type, id);
+        return this;
+    }
+
+    public void setCompressThreshold(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    public void setWriteCompact(boolean writeCompact) {
+        this.writeCompact = writeCompact;
+    }
+
+    /**
+     * 允许按类名反序列化的包，如 setTrustedPackages("com.sunboat.")；未配置时只允许java.*和已注册类型。
+     * 需在首次使用前配置，已解析过的嵌套类型会被Jackson缓存
+     */
+    public void setTrustedPackages(String... packages) {
+        this.trustedPackages = Collections.unmodifiableList(Arrays.asList(packages.clone()));
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (!writeCompact) {
+            return legacySerializer.serialize(value);
+        }
+        if (value instanceof Long || value instanceof Integer) {
+            return value.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+        try {
+            byte[] payload = encodePayload(value);
+            if (payload.length >= compressThreshold) {
+                byte[] compressed = compress(payload);
+                if (compressed != null) {
+                    return withHeader(FLAG_COMPRESSED, compressed);
+                }
+            }
+            return withHeader((byte) 0, payload);
+        } catch (IOException e) {
+            throw new SerializationException("序列化失败：" + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC || bytes.length < 3) {
+            Number number = parseInteger(bytes);
+            return number != null ? number : legacySerializer.deserialize(bytes);
+        }
+        try {
+            ByteBuffer payload = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+            if ((bytes[1] & FLAG_COMPRESSED) != 0) {
+                payload = ByteBuffer.wrap(decompress(payload));
+            }
+            return decodePayload(payload);
+        } catch (IOException | DataFormatException | ClassNotFoundException e) {
+            throw new SerializationException("反序列化失败", e);
+        }
+    }
+
+    // ------------------- 编码 -------------------
+
+    private byte[] encodePayload(Object value) throws IOException {
+        if (value instanceof String) {
+            byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(1 + utf8.length).put(TYPE_STRING).put(utf8).array();
+        }
+        if (value instanceof Double) {
+            return ByteBuffer.allocate(9).put(TYPE_DOUBLE).putDouble((Double) value).array();
+        }
+        if (value instanceof Boolean) {
+            return new byte[]{TYPE_BOOLEAN, (byte) ((Boolean) value ? 1 : 0)};
+        }
+        if (value instanceof byte[]) {
+            byte[] raw = (byte[]) value;
+            return ByteBuffer.allocate(1 + raw.length).put(TYPE_BYTES).put(raw).array();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        Integer id = classToId.get(value.getClass());
+        if (id != null) {
+            out.write(TYPE_REGISTERED);
+            writeVarInt(out, id);
+        } else {
+            String name = value.getClass().getName();
+            if (!isTrusted(name)) {
+                throw new SerializationException("类型未注册且不在受信任包中，请通过register或setTrustedPackages配置：" + name);
+            }
+            byte[] className = name.getBytes(StandardCharsets.UTF_8);
+            out.write(TYPE_CLASS_NAME);
+            writeVarInt(out, className.length);
+            out.write(className);
+        }
+        writeSmile(out, value);
+        return out.toByteArray();
+    }
+
+    /**
+     * 按具体类型写入根对象，不写入根对象的@class（类型已由ID或类名前缀表示），嵌套对象仍写入类型信息
+     */
+    private void writeSmile(ByteArrayOutputStream out, Object value) throws IOException {
+        try (JsonGenerator generator = smileMapper.getFactory().createGenerator(out)) {
+            SerializerProvider provider = smileMapper.getSerializerProviderInstance();
+            provider.findValueSerializer(value.getClass(), null).serialize(value, generator, provider);
+        }
+    }
+
+    private Object decodePayload(ByteBuffer payload) throws IOException, ClassNotFoundException {
+        byte type = payload.get();
+        switch (type) {
+            case TYPE_STRING:
+                return new String(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining(),
+                        StandardCharsets.UTF_8);
+            case TYPE_DOUBLE:
+                return payload.getDouble();
+            case TYPE_BOOLEAN:
+                return payload.get() != 0;
+            case TYPE_BYTES:
+                byte[] raw = new byte[payload.remaining()];
+                payload.get(raw);
+                return raw;
+            case TYPE_REGISTERED:
+                int id = readVarInt(payload);
+                Class<?> registered = idToClass.get(id);
+                if (registered == null) {
+                    throw new ClassNotFoundException("未注册的类型ID：" + id);
+                }
+                return readSmile(payload, registered);
+            case TYPE_CLASS_NAME:
+                byte[] className = new byte[readVarInt(payload)];
+                payload.get(className);
+                return readSmile(payload, loadClass(new String(className, StandardCharsets.UTF_8)));
+            default:
+                throw new IOException("未知的类型标记：" + type);
+        }
+    }
+
+    /**
+     * 按具体类型读取根对象，与 {@link #writeSmile} 对应，根对象不读取类型信息
+     */
+    private Object readSmile(ByteBuffer payload, Class<?> type) throws IOException {
+        try (JsonParser parser = smileMapper.getFactory().createParser(payload.array(),
+                payload.arrayOffset() + payload.position(), payload.remaining())) {
+            DeserializationConfig config = smileMapper.getDeserializationConfig();
+            config.initialize(parser);
+            DefaultDeserializationContext context = ((DefaultDeserializationContext) smileMapper.getDeserializationContext())
+                    .createInstance(config, parser, smileMapper.getInjectableValues());
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new IOException("Smile数据为空");
+            }
+            JsonDeserializer<Object> deserializer = context.findContextualValueDeserializer(config.constructType(type), null);
+            return token == JsonToken.VALUE_NULL
+                    ? deserializer.getNullValue(context) : deserializer.deserialize(parser, context);
+        }
+    }
+
+    /**
+     * 按类名加载类型：不执行静态初始化，线程上下文类加载器为空时使用本类的类加载器
+     */
+    private Class<?> loadClass(String name) throws ClassNotFoundException {
+        if (!isTrusted(name)) {
+            throw new ClassNotFoundException("不受信任的类型：" + name);
+        }
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = CompactRedisSerializer.class.getClassLoader();
+        }
+        return Class.forName(name, false, classLoader);
+    }
+
+    private boolean isTrusted(String className) {
+        int dimensions = 0;
+        while (dimensions < className.length() && className.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+        String name = className;
+        if (dimensions > 0) {
+            // 数组类名：[Lcom.foo.Bar; 或基础类型数组 [I
+            if (className.charAt(dimensions) != 'L') {
+                return true;
+            }
+            name = className.substring(dimensions + 1, className.length() - 1);
+        }
+        if (name.startsWith("java.")) {
+            return true;
+        }
+        for (Class<?> registered : classToId.keySet()) {
+            if (registered.getName().equals(name)) {
+                return true;
+            }
+        }
+        for (String trusted : trustedPackages) {
+            if (name.startsWith(trusted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 嵌套类型信息同样受信任包限制
+     */
+    private final class TrustedTypeValidator extends PolymorphicTypeValidator.Base {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Validity validateSubClassName(MapperConfig<?> config, JavaType baseType, String subClassName) {
+            return isTrusted(subClassName) ? Validity.ALLOWED : Validity.DENIED;
+        }
+
+        @Override
+        public Validity validateSubType(MapperConfig<?> config, JavaType baseType, JavaType subType) {
+            return isTrusted(subType.getRawClass().getName()) ? Validity.ALLOWED : Validity.DENIED;
+        }
+    }
+
+    /**
+     * 与GenericJackson2JsonRedisSerializer一致：嵌套对象除基础类型、包装类型和java.*下的final类型外均写入@class
+     */
+    private static final class TypeResolverBuilder extends ObjectMapper.DefaultTypeResolverBuilder {
+
+        private static final long serialVersionUID = 1L;
+
+        TypeResolverBuilder(PolymorphicTypeValidator validator) {
+            super(ObjectMapper.DefaultTyping.EVERYTHING, validator);
+            init(JsonTypeInfo.Id.CLASS, null);
+            inclusion(JsonTypeInfo.As.PROPERTY);
+        }
+
+        @Override
+        public boolean useForType(JavaType type) {
+            if (type.isJavaLangObject()) {
+                return true;
+            }
+            while (type.isArrayType()) {
+                type = type.getContentType();
+            }
+            while (type.isReferenceType()) {
+                type = type.getReferencedType();
+            }
+            Class<?> rawClass = type.getRawClass();
+            if (ClassUtils.isPrimitiveOrWrapper(rawClass)) {
+                return false;
+            }
+            if (type.isFinal() && rawClass.getName().startsWith("java.")) {
+                return false;
+            }
+            return !TreeNode.class.isAssignableFrom(rawClass);
+        }
+    }
+
+    // ------------------- 压缩 -------------------
+
+    /**
+     * 压缩负载，格式：原始长度(varint) + deflate数据；压缩后不更小时返回null
+     */
+    private byte[] compress(byte[] payload) {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(payload);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + 16);
+        writeVarInt(out, payload.length);
+        byte[] buffer = new byte[Math.min(payload.length, 8192)];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+            if (out.size() >= payload.length) {
+                return null;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] decompress(ByteBuffer compressed) throws DataFormatException {
+        int length = readVarInt(compressed);
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(compressed.array(), compressed.arrayOffset() + compressed.position(), compressed.remaining());
+        byte[] payload = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int n = inflater.inflate(payload, offset, length - offset);
+            if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                throw new DataFormatException("压缩数据不完整");
+            }
+            offset += n;
+        }
+        return payload;
+    }
+
+    // ------------------- 工具方法 -------------------
+
+    /**
+     * 解析十进制整数文本（INCR写入或本序列化器写入的整数），非整数返回null；
+     * 与JSON反序列化保持一致：int范围内返回Integer，否则返回Long
+     */
+    private static Number parseInteger(byte[] bytes) {
+        if (bytes.length > 20) {
+            return null;
+        }
+        int start = bytes[0] == '-' ? 1 : 0;
+        if (start == bytes.length) {
+            return null;
+        }
+        for (int i = start; i < bytes.length; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                return null;
+            }
+        }
+        try {
+            long value = Long.parseLong(new String(bytes, StandardCharsets.US_ASCII));
+            return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (Number) (int) value : (Number) value;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private byte[] withHeader(byte flags, byte[] payload) {
+        byte[] bytes = new byte[payload.length + 2];
+        bytes[0] = MAGIC;
+        bytes[1] = flags;
+        System.arraycopy(payload, 0, bytes, 2, payload.length);
+        return bytes;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,384 @@
+package com.sunboat.common.core.utils;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.sunboat.common.core.cache.NearCache;
+import com.sunboat.common.core.metrics.RedisMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.protocol.ScoredEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * RedisTemplateUtils的异步版本
+ * 基于Redisson异步命令实现（不占用调用线程），序列化方式与RedisTemplate保持一致；
+ * 读操作失败时返回默认值（与同步版本一致），写操作失败时以异常结束Future
+ */
+@Slf4j
+@Component
+public class RedisAsyncUtils {
+
+    private static final String LIST_REMOVE_SCRIPT = "return redis.call('LREM', KEYS[1], ARGV[1], ARGV[2])";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    private RedisTemplateCodec codec;
+
+    /**
+     * 近端缓存失效广播线程（广播为阻塞调用，不能在Redisson的IO线程或公共线程池中执行）
+     */
+    private ThreadPoolExecutor invalidationExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (!(redisTemplate.getKeySerializer() instanceof StringRedisSerializer)) {
+            log.warn("RedisTemplate的key序列化器不是StringRedisSerializer，异步操作的key可能与同步操作不一致");
+        }
+        codec = new RedisTemplateCodec(redisTemplate.getValueSerializer(), redisTemplate.getHashKeySerializer(),
+                redisTemplate.getHashValueSerializer());
+        invalidationExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(4096),
+                new NamedThreadFactory("redis-async-invalidate-", true), new ThreadPoolExecutor.AbortPolicy());
+        invalidationExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        invalidationExecutor.shutdown();
+    }
+
+    // ------------------- 通用操作 -------------------
+
+    /**
+     * 判断key是否存在
+     */
+    public CompletableFuture<Boolean> hasKeyAsync(String key) {
+        return read("hasKeyAsync", key, redissonClient.getKeys().countExistsAsync(key), 0L)
+                .thenApply(count -> count != null && count > 0);
+    }
+
+    /**
+     * 删除指定key
+     */
+    public CompletableFuture<Boolean> deleteKeyAsync(String key) {
+        return write(key, redissonClient.getKeys().deleteAsync(key)).thenApply(count -> count != null && count > 0);
+    }
+
+    /**
+     * 批量删除key（集群模式下由Redisson按槽位拆分）
+     */
+    public CompletableFuture<Long> deleteKeysAsync(Collection<String> keys) {
+        if (CollectionUtils.isEmpty(keys)) {
+            return CompletableFuture.completedFuture(0L);
+        }
+        return write(keys, redissonClient.getKeys().deleteAsync(keys.toArray(new String[0])));
+    }
+
+    /**
+     * 设置key过期时间
+     */
+    public CompletableFuture<Boolean> expireKeyAsync(String key, long timeout, TimeUnit unit) {
+        return write(key, redissonClient.getKeys().expireAsync(key, timeout, unit));
+    }
+
+    /**
+     * 获取key剩余过期时间（-1表示永不过期，-2表示key不存在）
+     */
+    public CompletableFuture<Long> getKeyExpireAsync(String key, TimeUnit unit) {
+        return read("getKeyExpireAsync", key, redissonClient.getKeys().remainTimeToLiveAsync(key), -1L)
+                .thenApply(millis -> millis < 0 ? millis : unit.convert(millis, TimeUnit.MILLISECONDS));
+    }
+
+    // ------------------- String类型操作 -------------------
+
+    /**
+     * 获取String类型数据
+     */
+    public <T> CompletableFuture<T> getStringAsync(String key) {
+        return read("getStringAsync", key, redissonClient.<T>getBucket(key, codec).getAsync(), null);
+    }
+
+    /**
+     * 存储String类型数据
+     */
+    public CompletableFuture<Void> setStringAsync(String key, Object value) {
+        return write(key, redissonClient.getBucket(key, codec).setAsync(value));
+    }
+
+    /**
+     * 存储String类型数据并设置过期时间
+     */
+    public CompletableFuture<Void> setStringAsync(String key, Object value, long timeout, TimeUnit unit) {
+        return write(key, redissonClient.getBucket(key, codec).setAsync(value, timeout, unit));
+    }
+
+    /**
+     * 字符串自增（INCRBY）
+     */
+    public CompletableFuture<Long> incrStringAsync(String key, long delta) {
+        return write(key, redissonClient.getAtomicLong(key).addAndGetAsync(delta));
+    }
+
+    // ------------------- Hash类型操作 -------------------
+
+    /**
+     * 获取Hash中的某个字段值
+     */
+    public <T> CompletableFuture<T> getHashAsync(String key, String hashKey) {
+        return read("getHashAsync", key, redissonClient.<String, T>getMap(key, codec).getAsync(hashKey), null);
+    }
+
+    /**
+     * 获取Hash中所有字段和值
+     */
+    public <T> CompletableFuture<Map<String, T>> getHashAllAsync(String key) {
+        return read("getHashAllAsync", key, redissonClient.<String, T>getMap(key, codec).readAllMapAsync(),
+                Collections.emptyMap());
+    }
+
+    /**
+     * 存储Hash类型数据
+     */
+    public CompletableFuture<Boolean> setHashAsync(String key, String hashKey, Object value) {
+        return write(key, redissonClient.getMap(key, codec).fastPutAsync(hashKey, value));
+    }
+
+    /**
+     * 批量存储Hash类型数据
+     */
+    public CompletableFuture<Void> setHashBatchAsync(String key, Map<String, Object> map) {
+        if (CollectionUtils.isEmpty(map)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return write(key, redissonClient.<String, Object>getMap(key, codec).putAllAsync(map));
+    }
+
+    /**
+     * 删除Hash中的字段
+     */
+    public CompletableFuture<Long> deleteHashAsync(String key, String... hashKeys) {
+        return write(key, redissonClient.<String, Object>getMap(key, codec).fastRemoveAsync(hashKeys));
+    }
+
+    // ------------------- List类型操作 -------------------
+
+    /**
+     * 向List左侧添加元素（LPUSH），返回添加后List的长度
+     */
+    public CompletableFuture<Long> addListLeftAsync(String key, Object... values) {
+        return write(key, redissonClient.getDeque(key, codec).addFirstAsync(values))
+                .thenApply(size -> size == null ? null : size.longValue());
+    }
+
+    /**
+     * 向List右侧添加元素
+     */
+    public CompletableFuture<Boolean> addListRightAsync(String key, Object... values) {
+        return write(key, redissonClient.getList(key, codec).addAllAsync(Arrays.asList(values)));
+    }
+
+    /**
+     * 获取List指定范围的元素
+     */
+    public <T> CompletableFuture<List<T>> getListRangeAsync(String key, int start, int end) {
+        return read("getListRangeAsync", key, redissonClient.<T>getList(key, codec).rangeAsync(start, end),
+                Collections.emptyList());
+    }
+
+    /**
+     * 设置List中指定索引位置的元素
+     */
+    public CompletableFuture<Void> setListIndexAsync(String key, long index, Object value) {
+        return write(key, redissonClient.getList(key, codec).fastSetAsync(Math.toIntExact(index), value));
+    }
+
+    /**
+     * 删除List中指定元素（LREM），返回删除的数量
+     * @param count 大于0从头部开始删除count个，小于0从尾部开始删除，等于0删除全部
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Long> deleteListElementAsync(String key, long count, Object value) {
+        // 直接使用RedisTemplate的序列化结果，保证与同步写入的元素按字节匹配
+        byte[] rawValue = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+        RFuture<Long> future = redissonClient.getScript(ByteArrayCodec.INSTANCE).evalAsync(key, RScript.Mode.READ_WRITE,
+                LIST_REMOVE_SCRIPT, RScript.ReturnType.INTEGER, Collections.singletonList(key),
+                String.valueOf(count).getBytes(StandardCharsets.US_ASCII), rawValue);
+        return write(key, future);
+    }
+
+    // ------------------- Set类型操作 -------------------
+
+    /**
+     * 向Set添加元素
+     */
+    public CompletableFuture<Boolean> addSetAsync(String key, Object... values) {
+        return write(key, redissonClient.getSet(key, codec).addAllAsync(Arrays.asList(values)));
+    }
+
+    /**
+     * 获取Set中所有元素
+     */
+    public <T> CompletableFuture<Set<T>> getSetAllAsync(String key) {
+        return read("getSetAllAsync", key, redissonClient.<T>getSet(key, codec).readAllAsync(), Collections.emptySet());
+    }
+
+    /**
+     * 判断元素是否在Set中
+     */
+    public CompletableFuture<Boolean> isSetMemberAsync(String key, Object value) {
+        return read("isSetMemberAsync", key, redissonClient.getSet(key, codec).containsAsync(value), false);
+    }
+
+    /**
+     * 删除Set中的元素，返回删除的数量
+     */
+    public CompletableFuture<Long> deleteSetElementsAsync(String key, Object... values) {
+        return write(key, redissonClient.getSet(key, codec).removeAllCountedAsync(Arrays.asList(values)))
+                .thenApply(count -> count == null ? null : count.longValue());
+    }
+
+    // ------------------- ZSet类型操作 -------------------
+
+    /**
+     * 向ZSet添加元素
+     */
+    public CompletableFuture<Boolean> addZSetAsync(String key, Object value, double score) {
+        return write(key, redissonClient.getScoredSortedSet(key, codec).addAsync(score, value));
+    }
+
+    /**
+     * 获取ZSet中元素的分数
+     */
+    public CompletableFuture<Double> getZSetScoreAsync(String key, Object value) {
+        return read("getZSetScoreAsync", key, redissonClient.getScoredSortedSet(key, codec).getScoreAsync(value), null);
+    }
+
+    /**
+     * 获取ZSet中指定排名范围的元素（升序）
+     */
+    public <T> CompletableFuture<Collection<T>> getZSetRangeAsync(String key, int start, int end) {
+        return read("getZSetRangeAsync", key, redissonClient.<T>getScoredSortedSet(key, codec).valueRangeAsync(start, end),
+                Collections.emptyList());
+    }
+
+    /**
+     * 获取ZSet中指定分数范围的元素（按分数升序）
+     */
+    public <T> CompletableFuture<Set<ZSetOperations.TypedTuple<T>>> getZSetByScoreAsync(String key, double min, double max) {
+        return read("getZSetByScoreAsync", key,
+                redissonClient.<T>getScoredSortedSet(key, codec).entryRangeAsync(min, true, max, true),
+                Collections.<ScoredEntry<T>>emptyList()).thenApply(RedisAsyncUtils::toTypedTuples);
+    }
+
+    /**
+     * 分页获取ZSet中指定分数范围的元素（按分数升序，ZRANGEBYSCORE ... LIMIT offset count）
+     */
+    public <T> CompletableFuture<Set<ZSetOperations.TypedTuple<T>>> getZSetByScoreAsync(String key, double min, double max,
+                                                                                       long offset, long count) {
+        return read("getZSetByScoreAsync", key, redissonClient.<T>getScoredSortedSet(key, codec)
+                        .entryRangeAsync(min, true, max, true, Math.toIntExact(offset), Math.toIntExact(count)),
+                Collections.<ScoredEntry<T>>emptyList()).thenApply(RedisAsyncUtils::toTypedTuples);
+    }
+
+    // ------------------- 并发等待 -------------------
+
+    /**
+     * 在统一截止时间内等待全部Future，结果按输入顺序返回；
+     * 失败或超时的位置为null，超时未完成的Future会被取消
+     */
+    public static <T> List<T> awaitAll(List<? extends CompletableFuture<? extends T>> futures, long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<? extends T> future : futures) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 && !future.isDone()) {
+                // 已过截止时间仍未完成
+                future.cancel(true);
+                results.add(null);
+                continue;
+            }
+            try {
+                results.add(future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                results.add(null);
+            } catch (ExecutionException | TimeoutException | CancellationException | CompletionException e) {
+                future.cancel(true);
+                results.add(null);
+            }
+        }
+        return results;
+    }
+
+    // ------------------- 私有工具方法 -------------------
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> read(String method, String key, RFuture<? extends T> future, T defaultValue) {
+        return ((CompletableFuture<T>) future.toCompletableFuture()).exceptionally(e -> {
+            log.warn("Redis异步操作失败 - 方法: {}, Key: {}, 异常: {}", method, key, e.getMessage());
+            redisMetrics.recordError(method, key);
+            return defaultValue;
+        });
+    }
+
+    private <T> CompletableFuture<T> write(String key, RFuture<? extends T> future) {
+        return write(Collections.singletonList(key), future);
+    }
+
+    /**
+     * 写操作成功后立即失效本节点近端缓存，失效广播交给专用线程异步发送
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> write(Collection<String> keys, RFuture<? extends T> future) {
+        CompletableFuture<T> completable = (CompletableFuture<T>) future.toCompletableFuture();
+        if (!nearCache.isEnabled()) {
+            return completable;
+        }
+        return completable.whenComplete((result, e) -> {
+            if (e != null) {
+                return;
+            }
+            for (String key : keys) {
+                nearCache.invalidateLocal(key);
+            }
+            try {
+                invalidationExecutor.execute(() -> nearCache.invalidateAll(keys));
+            } catch (RejectedExecutionException rejected) {
+                log.warn("近端缓存失效广播队列已满，其他节点的缓存将在过期后更新 - Key: {}", keys);
+            }
+        });
+    }
+
+    private static <T> Set<ZSetOperations.TypedTuple<T>> toTypedTuples(Collection<ScoredEntry<T>> entries) {
+        Set<ZSetOperations.TypedTuple<T>> tuples = new LinkedHashSet<>(entries.size() * 4 / 3 + 1);
+        for (ScoredEntry<T> entry : entries) {
+            tuples.add(new DefaultTypedTuple<>(entry.getValue(), entry.getScore()));
+        }
+        return tuples;
+    }
+}
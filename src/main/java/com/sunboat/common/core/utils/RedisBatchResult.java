@@ -0,0 +1,92 @@
+package com.sunboat.common.core.utils;
+
+import java.util.*;
+
+/**
+ * Redis批量操作结果
+ * 结果按输入顺序排列，单个key失败时记录在failures中，不影响其他key的结果
+ */
+public class RedisBatchResult<K, V> {
+
+    /**
+     * 输入的key（按输入顺序）
+     */
+    private final List<K> keys;
+
+    /**
+     * 结果值（与keys一一对应，不存在或失败时为null）
+     */
+    private final List<V> values;
+
+    /**
+     * 失败的key及其异常
+     */
+    private final Map<K, Exception> failures = new LinkedHashMap<>();
+
+    public RedisBatchResult(List<K> keys) {
+        this.keys = Collections.unmodifiableList(keys);
+        this.values = new ArrayList<>(Collections.nCopies(keys.size(), null));
+    }
+
+    /**
+     * 构造降级结果：values中非null的位置视为成功，其余位置记为失败（如熔断期间部分key命中本地缓存）
+     * @param values 与keys一一对应，null表示全部失败
+     */
+    public static <K, V> RedisBatchResult<K, V> fallback(List<K> keys, List<V> values, Exception e) {
+        RedisBatchResult<K, V> result = new RedisBatchResult<>(keys);
+        for (int i = 0; i < keys.size(); i++) {
+            V value = values == null ? null : values.get(i);
+            if (value != null) {
+                result.set(i, value);
+            } else {
+                result.fail(i, e);
+            }
+        }
+        return result;
+    }
+
+    void set(int index, V value) {
+        values.set(index, value);
+    }
+
+    void fail(int index, Exception e) {
+        failures.put(keys.get(index), e);
+    }
+
+    public List<K> getKeys() {
+        return keys;
+    }
+
+    public List<V> getValues() {
+        return Collections.unmodifiableList(values);
+    }
+
+    public Map<K, Exception> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * 获取指定位置的结果
+     */
+    public V get(int index) {
+        return values.get(index);
+    }
+
+    /**
+     * 是否全部成功
+     */
+    public boolean isAllSuccess() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * 转换为有序Map（key重复时保留最后一个结果）
+     */
+    public Map<K, V> toMap() {
+        Map<K, V> map = new LinkedHashMap<>(keys.size() * 4 / 3 + 1);
+        for (int i = 0; i < keys.size(); i++) {
+            map.put(keys.get(i), values.get(i));
+        }
+        return map;
+    }
+}
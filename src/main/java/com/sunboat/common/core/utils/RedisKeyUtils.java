@@ -0,0 +1,78 @@
+package com.sunboat.common.core.utils;
+
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.util.Assert;
+
+import java.util.*;
+
+/**
+ * Redis key工具：集群槽位计算与哈希标签（hash tag）
+ * 同一哈希标签的key落在同一槽位，可用于多key命令、Lua脚本和事务；
+ * 标签粒度过粗会导致数据与流量集中在单个分片，建议按业务实体（如用户ID、订单ID）打标签
+ */
+public final class RedisKeyUtils {
+
+    /**
+     * 集群槽位总数
+     */
+    public static final int SLOT_COUNT = 16384;
+
+    private RedisKeyUtils() {
+    }
+
+    /**
+     * 生成哈希标签，如 hashTag("1001") 返回 "{1001}"
+     */
+    public static String hashTag(String tag) {
+        Assert.hasLength(tag, "哈希标签不能为空");
+        Assert.isTrue(tag.indexOf('{') < 0 && tag.indexOf('}') < 0, "哈希标签不能包含花括号");
+        return "{" + tag + "}";
+    }
+
+    /**
+     * 生成带哈希标签的key，如 taggedKey("order:", "1001", "items") 返回 "order:{1001}:items"
+     * @param prefix key前缀（可为空）
+     * @param tag 哈希标签，决定key所在槽位
+     * @param parts 标签后以冒号拼接的部分
+     */
+    public static String taggedKey(String prefix, String tag, Object... parts) {
+        StringBuilder key = new StringBuilder(prefix == null ? "" : prefix).append(hashTag(tag));
+        for (Object part : parts) {
+            key.append(':').append(part);
+        }
+        return key.toString();
+    }
+
+    /**
+     * 计算key所在槽位（存在哈希标签时只对标签内容计算）
+     */
+    public static int slot(String key) {
+        return ClusterSlotHashUtil.calculateSlot(key);
+    }
+
+    /**
+     * 判断多个key是否位于同一槽位（空集合返回true）
+     */
+    public static boolean isSameSlot(Collection<String> keys) {
+        int slot = -1;
+        for (String key : keys) {
+            int current = slot(key);
+            if (slot >= 0 && current != slot) {
+                return false;
+            }
+            slot = current;
+        }
+        return true;
+    }
+
+    /**
+     * 按槽位分组，组内保持输入顺序，组按首次出现的顺序排列
+     */
+    public static Map<Integer, List<String>> groupBySlot(Collection<String> keys) {
+        Map<Integer, List<String>> groups = new LinkedHashMap<>();
+        for (String key : keys) {
+            groups.computeIfAbsent(slot(key), k -> new ArrayList<>()).add(key);
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,78 @@
+package com.sunboat.common.core.utils;
+
+import io.netty.buffer.Unpooled;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 复用RedisTemplate序列化器的Redisson编解码器
+ * 使Redisson异步命令读写的数据与RedisTemplateUtils完全兼容
+ */
+public class RedisTemplateCodec extends BaseCodec {
+
+    private final Encoder valueEncoder;
+    private final Decoder<Object> valueDecoder;
+    private final Encoder mapKeyEncoder;
+    private final Decoder<Object> mapKeyDecoder;
+    private final Encoder mapValueEncoder;
+    private final Decoder<Object> mapValueDecoder;
+
+    public RedisTemplateCodec(RedisSerializer<?> valueSerializer, RedisSerializer<?> hashKeySerializer,
+                              RedisSerializer<?> hashValueSerializer) {
+        this.valueEncoder = encoder(valueSerializer);
+        this.valueDecoder = decoder(valueSerializer);
+        this.mapKeyEncoder = encoder(hashKeySerializer);
+        this.mapKeyDecoder = decoder(hashKeySerializer);
+        this.mapValueEncoder = encoder(hashValueSerializer);
+        this.mapValueDecoder = decoder(hashValueSerializer);
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return valueDecoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return valueEncoder;
+    }
+
+    @Override
+    public Decoder<Object> getMapKeyDecoder() {
+        return mapKeyDecoder;
+    }
+
+    @Override
+    public Encoder getMapKeyEncoder() {
+        return mapKeyEncoder;
+    }
+
+    @Override
+    public Decoder<Object> getMapValueDecoder() {
+        return mapValueDecoder;
+    }
+
+    @Override
+    public Encoder getMapValueEncoder() {
+        return mapValueEncoder;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Encoder encoder(RedisSerializer<?> serializer) {
+        RedisSerializer<Object> objectSerializer = (RedisSerializer<Object>) serializer;
+        return in -> {
+            byte[] bytes = objectSerializer.serialize(in);
+            return bytes == null ? Unpooled.EMPTY_BUFFER : Unpooled.wrappedBuffer(bytes);
+        };
+    }
+
+    private static Decoder<Object> decoder(RedisSerializer<?> serializer) {
+        return (buf, state) -> {
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            return serializer.deserialize(bytes);
+        };
+    }
+}
@@ -1,26 +1,132 @@
 package com.sunboat.common.core.utils;
 
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.sunboat.common.core.cache.HotKeyDetector;
+import com.sunboat.common.core.circuit.RedisCircuitBreaker;
+import com.sunboat.common.core.cache.NearCache;
+import com.sunboat.common.core.metrics.RedisMetrics;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.spring.data.connection.RedissonConnectionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 基于RedisTemplate的通用工具类
- * 支持String、Hash、List、Set、ZSet等常用操作
+ * 支持String、Hash、List、Set、ZSet等常用操作；
+ * 集群模式下批量操作按key所在节点分组，各节点的管道并行发送，结果仍按输入顺序返回
  */
+@Slf4j
 @Component
 public class RedisTemplateUtils {
 
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    /**
+     * GET + SET PX 原子脚本
+     */
+    private static final RedisScript<Object> GET_AND_SET_SCRIPT = new DefaultRedisScript<>(
+            "local old = redis.call('GET', KEYS[1]) "
+                    + "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) "
+                    + "return old", Object.class);
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @Autowired
+    private RedisMetrics redisMetrics;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    /**
+     * 批量操作单次发送的最大key数量，超出部分自动分批
+     */
+    @Value("${sunboat.redis.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 集群模式下批量操作并行发送的最大分组数，不大于1时各分组串行发送
+     */
+    @Value("${sunboat.redis.cluster.batch-parallelism:8}")
+    private int batchParallelism;
+
+    /**
+     * 集群槽位分布的刷新间隔（毫秒）。分布过期只影响分组效果，命令重定向由客户端处理
+     */
+    @Value("${sunboat.redis.cluster.topology-refresh-millis:30000}")
+    private long topologyRefreshMillis;
+
+    @Autowired(required = false)
+    private RedissonClient redissonClient;
+
+    /**
+     * 是否集群模式，初始化时按连接工厂判断
+     */
+    private boolean clusterMode;
+
+    private volatile SlotTable slotTable;
+
+    private final AtomicBoolean topologyRefreshing = new AtomicBoolean();
+
+    private ThreadPoolExecutor batchExecutor;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, batchParallelism);
+        batchExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1024), new NamedThreadFactory("redis-batch-", true),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        batchExecutor.allowCoreThreadTimeOut(true);
+        clusterMode = detectClusterMode();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        batchExecutor.shutdownNow();
+    }
+
     // ------------------- 通用操作 -------------------
 
     /**
@@ -40,7 +146,9 @@ public class RedisTemplateUtils {
      */
     public boolean deleteKey(String key) {
         try {
-            return Boolean.TRUE.equals(redisTemplate.delete(key));
+            boolean deleted = Boolean.TRUE.equals(redisTemplate.delete(key));
+            nearCache.invalidate(key);
+            return deleted;
         } catch (Exception e) {
             logError("deleteKey", key, e);
             return false;
@@ -48,14 +156,31 @@ public class RedisTemplateUtils {
     }
 
     /**
-     * 批量删除key
+     * 批量删除key（集群模式下按节点分组，以管道逐个DEL，部分节点失败时返回其余节点的删除数量）
      */
     public long deleteKeys(Collection<String> keys) {
         if (CollectionUtils.isEmpty(keys)) {
             return 0;
         }
+        if (isCluster()) {
+            List<String> keyList = new ArrayList<>(keys);
+            RedisBatchResult<String, Long> result = new RedisBatchResult<>(keyList);
+            executeBatch("deleteKeys", keyList, allIndexes(keyList.size()), result, true, chunk -> executePipelinedRaw(connection -> {
+                for (String key : chunk) {
+                    connection.keyCommands().del(rawKey(key));
+                }
+            }), raw -> raw instanceof Number ? ((Number) raw).longValue() : 0L);
+            nearCache.invalidateAll(keyList);
+            long deleted = 0;
+            for (Long count : result.getValues()) {
+                deleted += count == null ? 0 : count;
+            }
+            return deleted;
+        }
         try {
-            return redisTemplate.delete(keys);
+            long deleted = redisTemplate.delete(keys);
+            nearCache.invalidateAll(keys);
+            return deleted;
         } catch (Exception e) {
             logError("deleteKeys", keys.toString(), e);
             return 0;
@@ -67,7 +192,9 @@ public class RedisTemplateUtils {
      */
     public boolean expireKey(String key, long timeout, TimeUnit unit) {
         try {
-            return Boolean.TRUE.equals(redisTemplate.expire(key, timeout, unit));
+            boolean result = Boolean.TRUE.equals(redisTemplate.expire(key, timeout, unit));
+            nearCache.invalidate(key);
+            return result;
         } catch (Exception e) {
             logError("expireKey", key, e);
             return false;
@@ -96,15 +223,17 @@ public class RedisTemplateUtils {
     }
 
     /**
-     * 存储String类型数据并设置过期时间
+     * 存储String类型数据并设置过期时间（单条SET PX命令，值与过期时间原子生效）
      */
     public void setString(String key, Object value, long timeout, TimeUnit unit) {
         try {
             ValueOperations<String, Object> operations = redisTemplate.opsForValue();
-            operations.set(key, value);
             if (timeout > 0 && unit != null) {
-                expireKey(key, timeout, unit);
+                operations.set(key, value, timeout, unit);
+            } else {
+                operations.set(key, value);
             }
+            nearCache.invalidate(key);
         } catch (Exception e) {
             logError("setString", key, e);
             throw new RuntimeException("Redis String存储失败", e);
@@ -117,6 +246,10 @@ public class RedisTemplateUtils {
     @SuppressWarnings("unchecked")
     public <T> T getString(String key) {
         try {
+            hotKeyDetector.record(key);
+            if (nearCache.admits(key)) {
+                return (T) getStringThroughNearCache(key);
+            }
             ValueOperations<String, Object> operations = redisTemplate.opsForValue();
             return (T) operations.get(key);
         } catch (Exception e) {
@@ -125,12 +258,115 @@ public class RedisTemplateUtils {
         }
     }
 
+    /**
+     * 获取String类型数据及剩余过期时间（同一管道内GET + PTTL，单次往返）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ValueWithTtl<T> getStringWithTtl(String key) {
+        try {
+            List<Object> results = readStringWithTtl(key);
+            return new ValueWithTtl<>((T) results.get(0), toTtl(results.get(1)));
+        } catch (Exception e) {
+            logError("getStringWithTtl", key, e);
+            return new ValueWithTtl<>(null, -2);
+        }
+    }
+
+    /**
+     * key不存在时存储String类型数据并设置过期时间（SET NX PX）
+     * @return 是否写入成功
+     */
+    public boolean setStringIfAbsent(String key, Object value, long timeout, TimeUnit unit) {
+        try {
+            boolean result = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, timeout, unit));
+            if (result) {
+                nearCache.invalidate(key);
+            }
+            return result;
+        } catch (Exception e) {
+            logError("setStringIfAbsent", key, e);
+            throw new RuntimeException("Redis String存储失败", e);
+        }
+    }
+
+    /**
+     * key存在时存储String类型数据并设置过期时间（SET XX PX）
+     * @return 是否写入成功
+     */
+    public boolean setStringIfPresent(String key, Object value, long timeout, TimeUnit unit) {
+        try {
+            boolean result = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfPresent(key, value, timeout, unit));
+            if (result) {
+                nearCache.invalidate(key);
+            }
+            return result;
+        } catch (Exception e) {
+            logError("setStringIfPresent", key, e);
+            throw new RuntimeException("Redis String存储失败", e);
+        }
+    }
+
+    /**
+     * 获取String类型数据并刷新过期时间（GETEX，需Redis 6.2+）
+     * 值未改变，只失效本节点近端缓存中过期时间已不一致的条目，不广播
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getStringAndExpire(String key, long timeout, TimeUnit unit) {
+        try {
+            T value = (T) redisTemplate.opsForValue().getAndExpire(key, timeout, unit);
+            nearCache.invalidateLocal(key);
+            return value;
+        } catch (Exception e) {
+            logError("getStringAndExpire", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 存储String类型数据并返回旧值（GETSET）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAndSetString(String key, Object value) {
+        try {
+            T oldValue = (T) redisTemplate.opsForValue().getAndSet(key, value);
+            nearCache.invalidate(key);
+            return oldValue;
+        } catch (Exception e) {
+            logError("getAndSetString", key, e);
+            throw new RuntimeException("Redis String存储失败", e);
+        }
+    }
+
+    /**
+     * 存储String类型数据、设置过期时间并返回旧值（Lua脚本单次往返原子执行）
+     * 与setString一致：timeout不大于0或unit为null时不设置过期时间；不足1毫秒按1毫秒处理
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAndSetString(String key, Object value, long timeout, TimeUnit unit) {
+        if (timeout <= 0 || unit == null) {
+            return getAndSetString(key, value);
+        }
+        long millis = Math.max(1, unit.toMillis(timeout));
+        try {
+            T oldValue = (T) redisTemplate.execute(GET_AND_SET_SCRIPT, RedisSerializer.byteArray(),
+                    valueSerializer(), Collections.singletonList(key),
+                    rawValue(value), String.valueOf(millis).getBytes(StandardCharsets.UTF_8));
+            nearCache.invalidate(key);
+            return oldValue;
+        } catch (Exception e) {
+            logError("getAndSetString", key, e);
+            throw new RuntimeException("Redis String存储失败", e);
+        }
+    }
+
     /**
      * 字符串自增
      */
     public Long incrString(String key, long delta) {
         try {
-            return redisTemplate.opsForValue().increment(key, delta);
+            Long value = redisTemplate.opsForValue().increment(key, delta);
+            nearCache.invalidate(key);
+            return value;
         } catch (Exception e) {
             logError("incrString", key, e);
             throw new RuntimeException("Redis String自增失败", e);
@@ -145,6 +381,7 @@ public class RedisTemplateUtils {
     public void setHash(String key, String hashKey, Object value) {
         try {
             redisTemplate.opsForHash().put(key, hashKey, value);
+            nearCache.invalidate(key);
         } catch (Exception e) {
             logError("setHash", key + ":" + hashKey, e);
             throw new RuntimeException("Redis Hash存储失败", e);
@@ -160,6 +397,7 @@ public class RedisTemplateUtils {
         }
         try {
             redisTemplate.opsForHash().putAll(key, map);
+            nearCache.invalidate(key);
         } catch (Exception e) {
             logError("setHashBatch", key, e);
             throw new RuntimeException("Redis Hash批量存储失败", e);
@@ -172,6 +410,10 @@ public class RedisTemplateUtils {
     @SuppressWarnings("unchecked")
     public <T> T getHash(String key, String hashKey) {
         try {
+            hotKeyDetector.record(key);
+            if (nearCache.admits(key)) {
+                return (T) getHashThroughNearCache(key, hashKey);
+            }
             return (T) redisTemplate.opsForHash().get(key, hashKey);
         } catch (Exception e) {
             logError("getHash", key + ":" + hashKey, e);
@@ -180,11 +422,15 @@ public class RedisTemplateUtils {
     }
 
     /**
-     * 获取Hash中所有字段和值
+     * 获取Hash中所有字段和值（大Hash请使用scanHash分批遍历）
      */
     @SuppressWarnings("unchecked")
     public <T> Map<String, T> getHashAll(String key) {
         try {
+            hotKeyDetector.record(key);
+            if (nearCache.admits(key)) {
+                return (Map<String, T>) getHashAllThroughNearCache(key);
+            }
             Map<Object, Object> entries = redisTemplate.opsForHash().entries(key);
             Map<String, T> result = new HashMap<>(entries.size());
             for (Map.Entry<Object, Object> entry : entries.entrySet()) {
@@ -202,7 +448,9 @@ public class RedisTemplateUtils {
      */
     public Long deleteHash(String key, Object... hashKeys) {
         try {
-            return redisTemplate.opsForHash().delete(key, hashKeys);
+            Long deleted = redisTemplate.opsForHash().delete(key, hashKeys);
+            nearCache.invalidate(key);
+            return deleted;
         } catch (Exception e) {
             logError("deleteHash", key, e);
             return 0L;
@@ -236,7 +484,7 @@ public class RedisTemplateUtils {
     }
 
     /**
-     * 获取List指定范围的元素
+     * 获取List指定范围的元素（大List请使用scanList分批遍历）
      */
     @SuppressWarnings("unchecked")
     public <T> List<T> getListRange(String key, long start, long end) {
@@ -287,7 +535,7 @@ public class RedisTemplateUtils {
     }
 
     /**
-     * 获取Set中所有元素
+     * 获取Set中所有元素（大Set请使用scanSet分批遍历）
      */
     @SuppressWarnings("unchecked")
     public <T> Set<T> getSetAll(String key) {
@@ -363,37 +611,902 @@ public class RedisTemplateUtils {
     }
 
     /**
-     * 获取ZSet中指定分数范围的元素
+     * 获取ZSet中指定分数范围的元素（按分数升序）
      */
-    @SuppressWarnings("unchecked")
     public <T> Set<ZSetOperations.TypedTuple<T>> getZSetByScore(String key, double min, double max) {
         try {
-            // 获取原始结果
-            Set<ZSetOperations.TypedTuple<Object>> originalSet = redisTemplate.opsForZSet().rangeByScoreWithScores(key, min, max);
-            Set<ZSetOperations.TypedTuple<T>> resultSet = new HashSet<>();
-
-            // 逐个转换元素类型
-            for (ZSetOperations.TypedTuple<Object> tuple : originalSet) {
-                @SuppressWarnings("unchecked")
-                T value = (T) tuple.getValue();
-                resultSet.add(new DefaultTypedTuple<>(value, tuple.getScore()));
-            }
+            return toTypedTuples(redisTemplate.opsForZSet().rangeByScoreWithScores(key, min, max));
+        } catch (Exception e) {
+            logError("getZSetByScore", key, e);
+            return Collections.emptySet();
+        }
+    }
 
-            return resultSet;
+    /**
+     * 分页获取ZSet中指定分数范围的元素（按分数升序，ZRANGEBYSCORE ... LIMIT offset count）
+     */
+    public <T> Set<ZSetOperations.TypedTuple<T>> getZSetByScore(String key, double min, double max, long offset, long count) {
+        try {
+            return toTypedTuples(redisTemplate.opsForZSet().rangeByScoreWithScores(key, min, max, offset, count));
         } catch (Exception e) {
             logError("getZSetByScore", key, e);
             return Collections.emptySet();
         }
     }
 
+    /**
+     * 分页获取ZSet中指定分数范围的元素（按分数降序，ZREVRANGEBYSCORE ... LIMIT offset count）
+     */
+    public <T> Set<ZSetOperations.TypedTuple<T>> getZSetReverseByScore(String key, double min, double max, long offset, long count) {
+        try {
+            return toTypedTuples(redisTemplate.opsForZSet().reverseRangeByScoreWithScores(key, min, max, offset, count));
+        } catch (Exception e) {
+            logError("getZSetReverseByScore", key, e);
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * 获取ZSet中指定排名范围的元素及分数（升序，end为-1表示到最后）
+     */
+    public <T> Set<ZSetOperations.TypedTuple<T>> getZSetRangeWithScores(String key, long start, long end) {
+        try {
+            return toTypedTuples(redisTemplate.opsForZSet().rangeWithScores(key, start, end));
+        } catch (Exception e) {
+            logError("getZSetRangeWithScores", key, e);
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * 获取ZSet中指定排名范围的元素及分数（降序，end为-1表示到最后）
+     */
+    public <T> Set<ZSetOperations.TypedTuple<T>> getZSetReverseRangeWithScores(String key, long start, long end) {
+        try {
+            return toTypedTuples(redisTemplate.opsForZSet().reverseRangeWithScores(key, start, end));
+        } catch (Exception e) {
+            logError("getZSetReverseRangeWithScores", key, e);
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * 获取元素的升序排名（从0开始），元素不存在时返回null
+     */
+    public Long getZSetRank(String key, Object value) {
+        try {
+            return redisTemplate.opsForZSet().rank(key, value);
+        } catch (Exception e) {
+            logError("getZSetRank", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 获取元素的降序排名（从0开始），元素不存在时返回null
+     */
+    public Long getZSetReverseRank(String key, Object value) {
+        try {
+            return redisTemplate.opsForZSet().reverseRank(key, value);
+        } catch (Exception e) {
+            logError("getZSetReverseRank", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 增加元素的分数（ZINCRBY），元素不存在时以delta为初始分数，返回增加后的分数
+     */
+    public Double incrZSetScore(String key, Object value, double delta) {
+        try {
+            return redisTemplate.opsForZSet().incrementScore(key, value, delta);
+        } catch (Exception e) {
+            logError("incrZSetScore", key, e);
+            throw new RuntimeException("Redis ZSet分数自增失败", e);
+        }
+    }
+
+    /**
+     * 获取ZSet元素个数
+     */
+    public Long getZSetSize(String key) {
+        try {
+            return redisTemplate.opsForZSet().zCard(key);
+        } catch (Exception e) {
+            logError("getZSetSize", key, e);
+            return 0L;
+        }
+    }
+
+    /**
+     * 删除ZSet中的元素，返回删除的个数
+     */
+    public Long removeZSet(String key, Object... values) {
+        try {
+            return redisTemplate.opsForZSet().remove(key, values);
+        } catch (Exception e) {
+            logError("removeZSet", key, e);
+            throw new RuntimeException("Redis ZSet删除元素失败", e);
+        }
+    }
+
+    /**
+     * 裁剪ZSet，只保留分数最高（keepHighest为true）或最低的maxSize个元素，返回删除的个数
+     */
+    public Long trimZSet(String key, long maxSize, boolean keepHighest) {
+        try {
+            return keepHighest
+                    ? redisTemplate.opsForZSet().removeRange(key, 0, -maxSize - 1)
+                    : redisTemplate.opsForZSet().removeRange(key, maxSize, -1);
+        } catch (Exception e) {
+            logError("trimZSet", key, e);
+            throw new RuntimeException("Redis ZSet裁剪失败", e);
+        }
+    }
+
+    // ------------------- 批量操作 -------------------
+
+    /**
+     * 批量获取String类型数据（MGET，集群模式下跨槽位的分批改为管道逐个GET），结果按输入顺序返回
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RedisBatchResult<String, T> multiGetString(Collection<String> keys) {
+        List<String> keyList = new ArrayList<>(keys);
+        RedisBatchResult<String, T> result = new RedisBatchResult<>(keyList);
+        List<Integer> missIndexes = new ArrayList<>(keyList.size());
+        for (int i = 0; i < keyList.size(); i++) {
+            hotKeyDetector.record(keyList.get(i));
+            Object cached = nearCache.admits(keyList.get(i)) ? nearCache.getString(keyList.get(i)) : null;
+            if (cached != null) {
+                result.set(i, (T) cached);
+            } else {
+                missIndexes.add(i);
+            }
+        }
+        executeBatch("multiGetString", keyList, missIndexes, result, true, chunk -> {
+            if (isCrossSlot(chunk)) {
+                return executePipelinedRaw(connection -> {
+                    for (String key : chunk) {
+                        connection.stringCommands().get(rawKey(key));
+                    }
+                });
+            }
+            List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                    connection.stringCommands().mGet(rawKeys(chunk)), true);
+            return values == null ? Collections.nCopies(chunk.size(), null) : new ArrayList<>(values);
+        }, raw -> (T) deserializeValue(raw));
+        return result;
+    }
+
+    /**
+     * 批量存储String类型数据（MSET，不设置过期时间；集群模式下跨槽位的分批改为管道逐个SET）
+     */
+    public RedisBatchResult<String, Boolean> multiSetString(Map<String, ?> values) {
+        List<String> keyList = new ArrayList<>(values.keySet());
+        RedisBatchResult<String, Boolean> result = new RedisBatchResult<>(keyList);
+        executeBatch("multiSetString", keyList, allIndexes(keyList.size()), result, true, chunk -> {
+            if (isCrossSlot(chunk)) {
+                return executePipelinedRaw(connection -> {
+                    for (String key : chunk) {
+                        connection.stringCommands().set(rawKey(key), rawValue(values.get(key)));
+                    }
+                });
+            }
+            Map<byte[], byte[]> tuple = new LinkedHashMap<>(chunk.size() * 4 / 3 + 1);
+            for (String key : chunk) {
+                tuple.put(rawKey(key), rawValue(values.get(key)));
+            }
+            Boolean ok = redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection.stringCommands().mSet(tuple), true);
+            return Collections.nCopies(chunk.size(), ok == null ? Boolean.TRUE : ok);
+        }, raw -> !Boolean.FALSE.equals(raw));
+        nearCache.invalidateAll(keyList);
+        return result;
+    }
+
+    /**
+     * 批量存储String类型数据并设置统一过期时间（管道内逐个SET PX）
+     */
+    public RedisBatchResult<String, Boolean> multiSetString(Map<String, ?> values, long timeout, TimeUnit unit) {
+        Map<String, Long> ttlMillis = new HashMap<>(values.size() * 4 / 3 + 1);
+        long millis = unit.toMillis(timeout);
+        for (String key : values.keySet()) {
+            ttlMillis.put(key, millis);
+        }
+        return multiSetString(values, ttlMillis);
+    }
+
+    /**
+     * 批量存储String类型数据并按key设置过期时间（毫秒，缺省或不大于0表示不过期）
+     */
+    public RedisBatchResult<String, Boolean> multiSetString(Map<String, ?> values, Map<String, Long> ttlMillis) {
+        List<String> keyList = new ArrayList<>(values.keySet());
+        RedisBatchResult<String, Boolean> result = new RedisBatchResult<>(keyList);
+        executeBatch("multiSetString", keyList, allIndexes(keyList.size()), result, true, chunk -> executePipelinedRaw(connection -> {
+            for (String key : chunk) {
+                Long ttl = ttlMillis.get(key);
+                Expiration expiration = ttl != null && ttl > 0 ? Expiration.milliseconds(ttl) : Expiration.persistent();
+                connection.stringCommands().set(rawKey(key), rawValue(values.get(key)), expiration,
+                        RedisStringCommands.SetOption.upsert());
+            }
+        }), raw -> !Boolean.FALSE.equals(raw));
+        nearCache.invalidateAll(keyList);
+        return result;
+    }
+
+    /**
+     * 批量自增String类型数据（管道内逐个INCRBY），结果为自增后的值
+     */
+    public RedisBatchResult<String, Long> multiIncrString(Map<String, Long> deltas) {
+        List<String> keyList = new ArrayList<>(deltas.keySet());
+        RedisBatchResult<String, Long> result = new RedisBatchResult<>(keyList);
+        executeBatch("multiIncrString", keyList, allIndexes(keyList.size()), result, true, chunk -> executePipelinedRaw(connection -> {
+            for (String key : chunk) {
+                connection.stringCommands().incrBy(rawKey(key), deltas.get(key));
+            }
+        }), raw -> raw instanceof Number ? ((Number) raw).longValue() : null);
+        nearCache.invalidateAll(keyList);
+        return result;
+    }
+
+    /**
+     * 批量获取多个Hash中同一字段的值（管道内逐个HGET）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RedisBatchResult<String, T> multiGetHash(Collection<String> keys, String hashKey) {
+        List<String> keyList = new ArrayList<>(keys);
+        RedisBatchResult<String, T> result = new RedisBatchResult<>(keyList);
+        byte[] rawHashKey = rawHashKey(hashKey);
+        executeBatch("multiGetHash", keyList, allIndexes(keyList.size()), result, true, chunk -> executePipelinedRaw(connection -> {
+            for (String key : chunk) {
+                connection.hashCommands().hGet(rawKey(key), rawHashKey);
+            }
+        }), raw -> (T) deserializeHashValue(raw));
+        return result;
+    }
+
+    /**
+     * 批量获取多个Hash的全部字段（管道内逐个HGETALL）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RedisBatchResult<String, Map<String, T>> multiGetHashAll(Collection<String> keys) {
+        List<String> keyList = new ArrayList<>(keys);
+        RedisBatchResult<String, Map<String, T>> result = new RedisBatchResult<>(keyList);
+        executeBatch("multiGetHashAll", keyList, allIndexes(keyList.size()), result, true, chunk -> executePipelinedRaw(connection -> {
+            for (String key : chunk) {
+                connection.hashCommands().hGetAll(rawKey(key));
+            }
+        }), raw -> (Map<String, T>) deserializeHash(raw));
+        return result;
+    }
+
+    /**
+     * 批量获取ZSet中多个元素的分数（管道内逐个ZSCORE）
+     */
+    public RedisBatchResult<Object, Double> multiGetZSetScore(String key, Collection<?> values) {
+        List<Object> valueList = new ArrayList<>(values);
+        RedisBatchResult<Object, Double> result = new RedisBatchResult<>(valueList);
+        byte[] rawKey = rawKey(key);
+        executeBatch("multiGetZSetScore", valueList, allIndexes(valueList.size()), result, false, chunk -> executePipelinedRaw(connection -> {
+            for (Object value : chunk) {
+                connection.zSetCommands().zScore(rawKey, rawValue(value));
+            }
+        }), raw -> raw instanceof Number ? ((Number) raw).doubleValue() : null);
+        return result;
+    }
+
+    /**
+     * 批量向ZSet添加元素（管道内逐个ZADD），结果为各元素是否新增
+     * @param scores 元素 -> 分数，分数不能为null
+     */
+    public RedisBatchResult<Object, Boolean> multiAddZSet(String key, Map<?, Double> scores) {
+        scores.forEach((value, score) -> {
+            if (score == null) {
+                throw new IllegalArgumentException("ZSet元素分数不能为空：" + value);
+            }
+        });
+        List<Object> valueList = new ArrayList<>(scores.keySet());
+        RedisBatchResult<Object, Boolean> result = new RedisBatchResult<>(valueList);
+        byte[] rawKey = rawKey(key);
+        executeBatch("multiAddZSet", valueList, allIndexes(valueList.size()), result, false, chunk -> executePipelinedRaw(connection -> {
+            for (Object value : chunk) {
+                connection.zSetCommands().zAdd(rawKey, scores.get(value), rawValue(value));
+            }
+        }), raw -> raw instanceof Number ? ((Number) raw).longValue() > 0 : Boolean.TRUE.equals(raw));
+        return result;
+    }
+
+    // ------------------- 游标遍历（SCAN） -------------------
+
+    /**
+     * 按游标流式遍历Hash（HSCAN），返回的Stream需关闭以释放游标
+     * @param pattern 字段匹配模式，null表示全部
+     * @param count 每次SCAN的数量提示
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Stream<Map.Entry<String, T>> scanHash(String key, String pattern, int count) {
+        checkPositive("count", count);
+        try {
+            Cursor<Map.Entry<Object, Object>> cursor = redisTemplate.opsForHash().scan(key, scanOptions(pattern, count));
+            return cursorStream(cursor).map(entry ->
+                    new AbstractMap.SimpleImmutableEntry<>(String.valueOf(entry.getKey()), (T) entry.getValue()));
+        } catch (Exception e) {
+            logError("scanHash", key, e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * 分批遍历Hash全部字段，每批最多batchSize个字段
+     * consumer抛出的异常原样抛出，不计为Redis错误
+     * @param batchSize 每批数量（同时作为SCAN的数量提示），必须大于0
+     * @return 遍历的字段总数
+     */
+    public <T> long scanHash(String key, int batchSize, Consumer<Map<String, T>> consumer) {
+        checkPositive("batchSize", batchSize);
+        return forEachBatch("scanHash", key, this.<T>scanHash(key, null, batchSize), batchSize, batch -> {
+            Map<String, T> map = new LinkedHashMap<>(batch.size() * 4 / 3 + 1);
+            for (Map.Entry<String, T> entry : batch) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+            consumer.accept(map);
+        });
+    }
+
+    /**
+     * 按游标流式遍历Set（SSCAN），返回的Stream需关闭以释放游标
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Stream<T> scanSet(String key, String pattern, int count) {
+        checkPositive("count", count);
+        try {
+            return cursorStream(redisTemplate.opsForSet().scan(key, scanOptions(pattern, count))).map(value -> (T) value);
+        } catch (Exception e) {
+            logError("scanSet", key, e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * 分批遍历Set全部元素
+     * @return 遍历的元素总数
+     */
+    public <T> long scanSet(String key, int batchSize, Consumer<List<T>> consumer) {
+        checkPositive("batchSize", batchSize);
+        return forEachBatch("scanSet", key, this.<T>scanSet(key, null, batchSize), batchSize, consumer);
+    }
+
+    /**
+     * 按游标流式遍历ZSet（ZSCAN），返回的Stream需关闭以释放游标
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Stream<ZSetOperations.TypedTuple<T>> scanZSet(String key, String pattern, int count) {
+        checkPositive("count", count);
+        try {
+            return cursorStream(redisTemplate.opsForZSet().scan(key, scanOptions(pattern, count)))
+                    .map(tuple -> new DefaultTypedTuple<>((T) tuple.getValue(), tuple.getScore()));
+        } catch (Exception e) {
+            logError("scanZSet", key, e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * 分批遍历ZSet全部元素及分数
+     * @return 遍历的元素总数
+     */
+    public <T> long scanZSet(String key, int batchSize, Consumer<List<ZSetOperations.TypedTuple<T>>> consumer) {
+        checkPositive("batchSize", batchSize);
+        return forEachBatch("scanZSet", key, this.<T>scanZSet(key, null, batchSize), batchSize, consumer);
+    }
+
+    /**
+     * 按游标流式遍历匹配的key（SCAN，替代KEYS），返回的Stream需关闭以释放游标
+     */
+    public Stream<String> scanKeys(String pattern, int count) {
+        checkPositive("count", count);
+        try {
+            return cursorStream(redisTemplate.scan(scanOptions(pattern, count)));
+        } catch (Exception e) {
+            logError("scanKeys", pattern, e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * 分批遍历匹配的key
+     * @return 遍历的key总数
+     */
+    public long scanKeys(String pattern, int batchSize, Consumer<List<String>> consumer) {
+        checkPositive("batchSize", batchSize);
+        return forEachBatch("scanKeys", pattern, scanKeys(pattern, batchSize), batchSize, consumer);
+    }
+
+    /**
+     * 按窗口分批遍历List（每批一次LRANGE），避免一次性加载整个List
+     * consumer抛出的异常原样抛出，不计为Redis错误
+     * @param batchSize 每批数量，必须大于0
+     * @return 遍历的元素总数
+     */
+    @SuppressWarnings("unchecked")
+    public <T> long scanList(String key, int batchSize, Consumer<List<T>> consumer) {
+        checkPositive("batchSize", batchSize);
+        long total = 0;
+        for (long start = 0; ; start += batchSize) {
+            List<Object> batch;
+            try {
+                batch = redisTemplate.opsForList().range(key, start, start + batchSize - 1);
+            } catch (Exception e) {
+                logError("scanList", key, e);
+                throw new RuntimeException("Redis List遍历失败", e);
+            }
+            if (CollectionUtils.isEmpty(batch)) {
+                return total;
+            }
+            consumer.accept((List<T>) batch);
+            total += batch.size();
+            if (batch.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+
     // ------------------- 私有工具方法 -------------------
 
+    /**
+     * 经近端缓存读取String：未命中时同一管道内读取值与PTTL后回填
+     */
+    private Object getStringThroughNearCache(String key) {
+        Object cached = nearCache.getString(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadVersion = nearCache.beginLoad(key);
+        List<Object> results = readStringWithTtl(key);
+        Object value = results.get(0);
+        nearCache.putString(key, value, toTtl(results.get(1)), loadVersion);
+        return value;
+    }
+
+    private List<Object> readStringWithTtl(String key) {
+        byte[] rawKey = rawKey(key);
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().get(rawKey);
+            connection.keyCommands().pTtl(rawKey);
+            return null;
+        });
+    }
+
+    /**
+     * 经近端缓存读取Hash字段
+     */
+    private Object getHashThroughNearCache(String key, String hashKey) {
+        Object cached = nearCache.getHash(key, hashKey);
+        if (cached != null) {
+            return cached;
+        }
+        long loadVersion = nearCache.beginLoad(key);
+        byte[] rawKey = rawKey(key);
+        byte[] rawHashKey = rawHashKey(hashKey);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hGet(rawKey, rawHashKey);
+            connection.keyCommands().pTtl(rawKey);
+            return null;
+        }, redisTemplate.getHashValueSerializer());
+        Object value = results.get(0);
+        nearCache.putHash(key, hashKey, value, toTtl(results.get(1)), loadVersion);
+        return value;
+    }
+
+    /**
+     * 经近端缓存读取整个Hash
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getHashAllThroughNearCache(String key) {
+        Map<String, Object> cached = nearCache.getHashAll(key);
+        if (cached != null) {
+            return new HashMap<>(cached);
+        }
+        long loadVersion = nearCache.beginLoad(key);
+        byte[] rawKey = rawKey(key);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hGetAll(rawKey);
+            connection.keyCommands().pTtl(rawKey);
+            return null;
+        }, redisTemplate.getHashValueSerializer());
+        Map<Object, Object> entries = (Map<Object, Object>) results.get(0);
+        Map<String, Object> result = new HashMap<>(entries == null ? 0 : entries.size());
+        if (entries != null) {
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                result.put(entry.getKey().toString(), entry.getValue());
+            }
+        }
+        nearCache.putHashAll(key, result, toTtl(results.get(1)), loadVersion);
+        return result;
+    }
+
+    /**
+     * 批量命令（按分批执行，返回与分批key一一对应的原始结果）
+     */
+    private interface ChunkCommand<K> {
+        List<Object> execute(List<K> chunk);
+    }
+
+    /**
+     * 按batchSize分批执行并按输入顺序回填结果，
+     * 管道中单条命令失败只影响对应key，整批失败时该批所有key记为失败
+     * @param routed keys是否为Redis key，集群模式下按所在节点分组后再分批，各批并行发送
+     */
+    private <K, V> void executeBatch(String method, List<K> keys, List<Integer> indexes, RedisBatchResult<K, V> result,
+                                     boolean routed, ChunkCommand<K> command, Function<Object, V> converter) {
+        List<List<Integer>> chunks = routed && isCluster() ? partitionByNode(keys, indexes) : partition(indexes);
+        List<List<K>> chunkKeys = new ArrayList<>(chunks.size());
+        for (List<Integer> chunkIndexes : chunks) {
+            List<K> chunk = new ArrayList<>(chunkIndexes.size());
+            for (Integer index : chunkIndexes) {
+                chunk.add(keys.get(index));
+            }
+            chunkKeys.add(chunk);
+        }
+        // 第一批在当前线程执行，其余批次提交到线程池；结果统一在当前线程回填（失败标记依赖调用线程）
+        List<Future<List<Object>>> futures = new ArrayList<>(Collections.nCopies(chunks.size(), null));
+        if (routed && chunks.size() > 1 && batchParallelism > 1 && isCluster()) {
+            for (int i = 1; i < chunks.size(); i++) {
+                List<K> chunk = chunkKeys.get(i);
+                futures.set(i, CompletableFuture.supplyAsync(() -> command.execute(chunk), batchExecutor));
+            }
+        }
+        for (int c = 0; c < chunks.size(); c++) {
+            List<Integer> chunkIndexes = chunks.get(c);
+            List<K> chunk = chunkKeys.get(c);
+            List<Object> rawResults;
+            try {
+                rawResults = futures.get(c) == null ? command.execute(chunk) : await(futures.get(c));
+            } catch (RedisPipelineException e) {
+                rawResults = e.getPipelineResult();
+                logError(method, chunk.size() + " keys, 部分失败", e);
+            } catch (Exception e) {
+                logError(method, chunk.toString(), e);
+                for (Integer index : chunkIndexes) {
+                    result.fail(index, e);
+                }
+                continue;
+            }
+            for (int i = 0; i < chunkIndexes.size(); i++) {
+                int index = chunkIndexes.get(i);
+                Object raw = rawResults != null && i < rawResults.size() ? rawResults.get(i) : null;
+                if (raw instanceof Exception) {
+                    result.fail(index, (Exception) raw);
+                    continue;
+                }
+                try {
+                    result.set(index, converter.apply(raw));
+                } catch (Exception e) {
+                    result.fail(index, e);
+                }
+            }
+        }
+    }
+
+    private List<Object> await(Future<List<Object>> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    private List<List<Integer>> partition(List<Integer> indexes) {
+        int size = Math.max(1, batchSize);
+        List<List<Integer>> chunks = new ArrayList<>(indexes.size() / size + 1);
+        for (int from = 0; from < indexes.size(); from += size) {
+            chunks.add(indexes.subList(from, Math.min(from + size, indexes.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * 按key所在主节点分组，组内再按batchSize分批；槽位分布未知时退化为按输入顺序分批
+     */
+    private List<List<Integer>> partitionByNode(List<?> keys, List<Integer> indexes) {
+        SlotTable table = slotTable();
+        if (table == null) {
+            return partition(indexes);
+        }
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        for (Integer index : indexes) {
+            int node = table.nodes[RedisKeyUtils.slot((String) keys.get(index))];
+            groups.computeIfAbsent(node, k -> new ArrayList<>()).add(index);
+        }
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (List<Integer> group : groups.values()) {
+            chunks.addAll(partition(group));
+        }
+        return chunks;
+    }
+
+    /**
+     * 集群模式下分批中的key是否跨槽位（跨槽位时不能使用MGET、MSET等多key命令）
+     */
+    private boolean isCrossSlot(List<String> chunk) {
+        return isCluster() && !RedisKeyUtils.isSameSlot(chunk);
+    }
+
+    private boolean isCluster() {
+        return clusterMode;
+    }
+
+    /**
+     * 按连接工厂的配置判断是否集群模式（RedissonConnectionFactory与注入的RedissonClient为同一客户端）；
+     * 其他连接工厂在初始化时建立一次连接判断，失败时按单机模式处理
+     */
+    private boolean detectClusterMode() {
+        RedisConnectionFactory factory = redisTemplate.getRequiredConnectionFactory();
+        if (factory instanceof RedissonConnectionFactory && redissonClient != null) {
+            return redissonClient.getConfig().isClusterConfig();
+        }
+        if (factory instanceof LettuceConnectionFactory) {
+            return ((LettuceConnectionFactory) factory).isClusterAware();
+        }
+        try {
+            RedisConnection connection = factory.getConnection();
+            try {
+                return connection instanceof RedisClusterConnection;
+            } finally {
+                connection.close();
+            }
+        } catch (Exception e) {
+            log.warn("无法判断Redis部署模式，批量操作按单机模式执行：{}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 当前槽位分布，过期时由一个调用线程同步刷新，其他线程继续使用旧分布
+     */
+    private SlotTable slotTable() {
+        SlotTable table = slotTable;
+        if ((table == null || System.currentTimeMillis() - table.loadedAt > topologyRefreshMillis)
+                && topologyRefreshing.compareAndSet(false, true)) {
+            try {
+                table = loadSlotTable();
+                slotTable = table;
+            } catch (Exception e) {
+                log.warn("Redis集群槽位分布刷新失败，异常: {}", e.getMessage());
+            } finally {
+                topologyRefreshing.set(false);
+            }
+        }
+        return table;
+    }
+
+    private SlotTable loadSlotTable() {
+        int[] nodes = new int[RedisKeyUtils.SLOT_COUNT];
+        RedisClusterConnection connection = redisTemplate.getRequiredConnectionFactory().getClusterConnection();
+        try {
+            int node = 0;
+            for (RedisClusterNode clusterNode : connection.clusterGetNodes()) {
+                if (!clusterNode.isMaster() || clusterNode.getSlotRange() == null) {
+                    continue;
+                }
+                node++;
+                for (Integer slot : clusterNode.getSlotRange().getSlots()) {
+                    nodes[slot] = node;
+                }
+            }
+        } finally {
+            connection.close();
+        }
+        return new SlotTable(nodes, System.currentTimeMillis());
+    }
+
+    /**
+     * 在管道中执行命令并返回未反序列化的原始结果
+     */
+    private List<Object> executePipelinedRaw(Consumer<RedisConnection> commands) {
+        return redisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+            connection.openPipeline();
+            boolean closed = false;
+            try {
+                commands.accept(connection);
+                List<Object> results = connection.closePipeline();
+                closed = true;
+                return results;
+            } finally {
+                if (!closed) {
+                    connection.closePipeline();
+                }
+            }
+        }, true);
+    }
+
+    /**
+     * 转换ZSet查询结果的元素类型，保持Redis返回的顺序
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Set<ZSetOperations.TypedTuple<T>> toTypedTuples(Set<ZSetOperations.TypedTuple<Object>> tuples) {
+        if (tuples == null) {
+            return Collections.emptySet();
+        }
+        Set<ZSetOperations.TypedTuple<T>> result = new LinkedHashSet<>(tuples.size() * 4 / 3 + 1);
+        for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+            result.add(new DefaultTypedTuple<>((T) tuple.getValue(), tuple.getScore()));
+        }
+        return result;
+    }
+
+    private List<Integer> allIndexes(int size) {
+        List<Integer> indexes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private byte[][] rawKeys(Collection<String> keys) {
+        byte[][] rawKeys = new byte[keys.size()][];
+        int i = 0;
+        for (String key : keys) {
+            rawKeys[i++] = rawKey(key);
+        }
+        return rawKeys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Object> valueSerializer() {
+        return (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+    }
+
+    private byte[] rawValue(Object value) {
+        return valueSerializer().serialize(value);
+    }
+
+    private Object deserializeValue(Object raw) {
+        return raw instanceof byte[] ? redisTemplate.getValueSerializer().deserialize((byte[]) raw) : raw;
+    }
+
+    private Object deserializeHashValue(Object raw) {
+        return raw instanceof byte[] ? redisTemplate.getHashValueSerializer().deserialize((byte[]) raw) : raw;
+    }
+
+    private Map<String, Object> deserializeHash(Object raw) {
+        if (!(raw instanceof Map)) {
+            return Collections.emptyMap();
+        }
+        Map<?, ?> rawMap = (Map<?, ?>) raw;
+        Map<String, Object> map = new HashMap<>(rawMap.size() * 4 / 3 + 1);
+        for (Map.Entry<?, ?> entry : rawMap.entrySet()) {
+            Object hashKey = entry.getKey() instanceof byte[]
+                    ? redisTemplate.getHashKeySerializer().deserialize((byte[]) entry.getKey()) : entry.getKey();
+            map.put(String.valueOf(hashKey), deserializeHashValue(entry.getValue()));
+        }
+        return map;
+    }
+
+    private ScanOptions scanOptions(String pattern, int count) {
+        ScanOptions.ScanOptionsBuilder builder = ScanOptions.scanOptions().count(count);
+        if (pattern != null) {
+            builder.match(pattern);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 将游标包装为Stream，关闭Stream时关闭游标
+     */
+    private <E> Stream<E> cursorStream(Cursor<E> cursor) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
+    }
+
+    /**
+     * 将Stream按batchSize分批交给consumer处理，处理完毕或异常时关闭Stream
+     * 只有读取游标的异常计为Redis错误，consumer的异常原样抛出
+     */
+    private <E> long forEachBatch(String method, String key, Stream<E> stream, int batchSize, Consumer<List<E>> consumer) {
+        long total = 0;
+        try (Stream<E> closeable = stream) {
+            Iterator<E> iterator = closeable.iterator();
+            while (true) {
+                List<E> batch = nextBatch(method, key, iterator, batchSize);
+                if (batch.isEmpty()) {
+                    return total;
+                }
+                consumer.accept(batch);
+                total += batch.size();
+                if (batch.size() < batchSize) {
+                    return total;
+                }
+            }
+        }
+    }
+
+    /**
+     * 从游标读取下一批（最多batchSize个），游标读完时返回的批次不足batchSize
+     */
+    private <E> List<E> nextBatch(String method, String key, Iterator<E> iterator, int batchSize) {
+        List<E> batch = new ArrayList<>(Math.min(batchSize, 1024));
+        try {
+            while (batch.size() < batchSize && iterator.hasNext()) {
+                batch.add(iterator.next());
+            }
+        } catch (Exception e) {
+            logError(method, key, e);
+            throw new RuntimeException("Redis游标遍历失败", e);
+        }
+        return batch;
+    }
+
+    private static void checkPositive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + "必须大于0：" + value);
+        }
+    }
+
+    private long toTtl(Object pTtl) {
+        return pTtl instanceof Number ? ((Number) pTtl).longValue() : -2;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawHashKey(Object hashKey) {
+        return ((RedisSerializer<Object>) redisTemplate.getHashKeySerializer()).serialize(hashKey);
+    }
+
     /**
      * 统一错误日志处理
      */
     private void logError(String method, String key, Exception e) {
-        // 实际项目中建议使用SLF4J日志框架
-        System.err.printf("Redis操作失败 - 方法: %s, Key: %s, 异常: %s%n", method, key, e.getMessage());
+        log.warn("Redis操作失败 - 方法: {}, Key: {}, 异常: {}", method, key, e.getMessage());
+        // 读操作吞掉异常后返回默认值，需显式标记本次调用失败
+        redisMetrics.markError();
+        circuitBreaker.markFailure(e);
+    }
+
+    /**
+     * 槽位到主节点序号的映射（0表示槽位未分配）
+     */
+    private static class SlotTable {
+
+        private final int[] nodes;
+
+        private final long loadedAt;
+
+        SlotTable(int[] nodes, long loadedAt) {
+            this.nodes = nodes;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * 带剩余过期时间的值
+     */
+    @Getter
+    public static class ValueWithTtl<T> {
+        /**
+         * 值，不存在时为null
+         */
+        private final T value;
+
+        /**
+         * 剩余过期时间（毫秒），-1表示永不过期，-2表示key不存在
+         */
+        private final long ttlMillis;
+
+        public ValueWithTtl(T value, long ttlMillis) {
+            this.value = value;
+            this.ttlMillis = ttlMillis;
+        }
     }
 }
-    
\ No newline at end of file
@@ -1,10 +1,18 @@
 package com.sunboat.common.core.utils;
 
+import cn.hutool.crypto.digest.DigestUtil;
 import org.redisson.api.RBucket;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
 import org.redisson.api.RLock;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 @Component
@@ -13,6 +21,9 @@ public class RedissonUtils {
     @Autowired
     private RedissonClient redissonClient;
 
+    // 脚本内容 -> SHA1
+    private final Map<String, String> scriptShas = new ConcurrentHashMap<>();
+
     // 分布式锁（核心场景）
     public RLock getLock(String lockKey) {
         return redissonClient.getLock(lockKey);
@@ -30,5 +41,31 @@ public class RedissonUtils {
         return bucket.get();
     }
 
+    // 异步存值（支持对象）
+    public <T> CompletableFuture<Void> setAsync(String key, T value, long timeout, TimeUnit unit) {
+        RBucket<T> bucket = redissonClient.getBucket(key);
+        return bucket.setAsync(value, timeout, unit).toCompletableFuture();
+    }
+
+    // 异步取值
+    public <T> CompletableFuture<T> getAsync(String key) {
+        RBucket<T> bucket = redissonClient.getBucket(key);
+        return bucket.getAsync().toCompletableFuture();
+    }
+
+    // 执行Lua脚本（参数与返回值按字符串编解码）：优先EVALSHA，服务端未缓存脚本时自动EVAL加载
+    public <T> T evalScript(List<Object> keys, String script, RScript.ReturnType returnType, Object... args) {
+        RScript rScript = redissonClient.getScript(StringCodec.INSTANCE);
+        String sha = scriptShas.computeIfAbsent(script, DigestUtil::sha1Hex);
+        try {
+            return rScript.evalSha(RScript.Mode.READ_WRITE, sha, returnType, keys, args);
+        } catch (RedisException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("NOSCRIPT")) {
+                throw e;
+            }
+            return rScript.eval(RScript.Mode.READ_WRITE, script, returnType, keys, args);
+        }
+    }
+
     // 其他分布式特性（如 RMap、RList 等）按需封装...
 }
\ No newline at end of file
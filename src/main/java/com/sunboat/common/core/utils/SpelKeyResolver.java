@@ -0,0 +1,52 @@
+package com.sunboat.common.core.utils;
+
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 注解中SpEL key表达式的解析（供限流、分布式锁等切面使用）
+ * 表达式中可通过 #参数名、#p0/#a0 引用方法参数，解析后的表达式会被缓存
+ */
+@Component
+public class SpelKeyResolver {
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    /**
+     * 解析key表达式
+     * @param expression SpEL表达式，为空时返回空字符串
+     * @param method 被拦截的方法
+     * @param args 方法参数
+     * @return 解析结果，表达式结果为null时返回"null"
+     */
+    public String resolve(String expression, Method method, Object[] args) {
+        Object value = evaluate(expression, method, args);
+        return value == null ? (StringUtils.hasText(expression) ? "null" : "") : String.valueOf(value);
+    }
+
+    /**
+     * 计算表达式的原始结果（结果可能为集合，如批量加锁的key列表）
+     */
+    public Object evaluate(String expression, Method method, Object[] args) {
+        if (!StringUtils.hasText(expression)) {
+            return null;
+        }
+        MethodBasedEvaluationContext context =
+                new MethodBasedEvaluationContext(null, method, args, parameterNameDiscoverer);
+        return expressions.computeIfAbsent(expression, parser::parseExpression).getValue(context);
+    }
+}
@@ -0,0 +1,181 @@
+package com.sunboat.common.core.mq;
+
+import com.sunboat.common.core.enums.ResultCodeEnum;
+import com.sunboat.common.core.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.support.postprocessor.GUnzipPostProcessor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AmqpPublisherTest {
+
+    private InProcessBroker broker;
+
+    private AmqpPublisher publisher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        broker = new InProcessBroker();
+        publisher = new AmqpPublisher();
+        ReflectionTestUtils.setField(publisher, "connectionFactory", broker.getConnectionFactory());
+        ReflectionTestUtils.setField(publisher, "maxInFlight", 100);
+        ReflectionTestUtils.setField(publisher, "windowWaitMillis", 100L);
+        ReflectionTestUtils.setField(publisher, "confirmTimeoutMillis", 5000L);
+        ReflectionTestUtils.setField(publisher, "maxRetries", 2);
+        ReflectionTestUtils.setField(publisher, "retryBackoffMillis", 10L);
+        ReflectionTestUtils.setField(publisher, "batchSize", 100);
+        ReflectionTestUtils.setField(publisher, "batchBufferLimit", 65536);
+        ReflectionTestUtils.setField(publisher, "batchTimeoutMillis", 10L);
+        ReflectionTestUtils.setField(publisher, "compressThresholdBytes", 2048);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        publisher.destroy();
+        broker.close();
+    }
+
+    @Test
+    void completesOnAck() throws Exception {
+        publisher.init();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(publisher.publish("orders", "created", "order-" + i));
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(50, broker.getPublished().size());
+        assertEquals(0, publisher.getInFlight());
+        assertEquals("\"order-0\"", new String(broker.getPublished().get(0).body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void retriesAfterNack() throws Exception {
+        broker.script(InProcessBroker.Reply.NACK);
+        publisher.init();
+
+        publisher.publish("orders", "created", "order-1").get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, broker.getPublished().size());
+        assertEquals(0, publisher.getInFlight());
+    }
+
+    @Test
+    void failsAfterRetriesExhausted() {
+        broker.setDefaultReply(InProcessBroker.Reply.NACK);
+        publisher.init();
+
+        assertPublishFailed(publisher.publish("orders", "created", "order-1"));
+        assertEquals(3, broker.getPublished().size());
+        assertEquals(0, publisher.getInFlight());
+    }
+
+    @Test
+    void failsWhenUnroutable() {
+        broker.setDefaultReply(InProcessBroker.Reply.RETURN);
+        publisher.init();
+
+        BusinessException e = assertPublishFailed(publisher.publish("orders", "missing", "order-1"));
+        assertTrue(e.getMessage().contains("NO_ROUTE"));
+        // 无法路由不重试
+        assertEquals(1, broker.getPublished().size());
+    }
+
+    @Test
+    void retriesOnConfirmTimeout() {
+        broker.setDefaultReply(InProcessBroker.Reply.SILENT);
+        ReflectionTestUtils.setField(publisher, "confirmTimeoutMillis", 100L);
+        ReflectionTestUtils.setField(publisher, "maxRetries", 1);
+        publisher.init();
+
+        BusinessException e = assertPublishFailed(publisher.publish("orders", "created", "order-1"));
+        assertTrue(e.getMessage().contains("等待确认超时"));
+        assertEquals(2, broker.getPublished().size());
+    }
+
+    @Test
+    void failsWhenWindowExhausted() {
+        broker.setDefaultReply(InProcessBroker.Reply.SILENT);
+        ReflectionTestUtils.setField(publisher, "maxInFlight", 2);
+        ReflectionTestUtils.setField(publisher, "confirmTimeoutMillis", 1000L);
+        publisher.init();
+
+        CompletableFuture<Void> first = publisher.publish("orders", "created", "order-1");
+        CompletableFuture<Void> second = publisher.publish("orders", "created", "order-2");
+        CompletableFuture<Void> third = publisher.publish("orders", "created", "order-3");
+
+        assertPublishFailed(third);
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+        assertEquals(2, publisher.getInFlight());
+    }
+
+    @Test
+    void batchesAndCompresses() throws Exception {
+        ReflectionTestUtils.setField(publisher, "batchEnabled", true);
+        ReflectionTestUtils.setField(publisher, "batchSize", 3);
+        ReflectionTestUtils.setField(publisher, "compressEnabled", true);
+        ReflectionTestUtils.setField(publisher, "compressThresholdBytes", 0);
+        publisher.init();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(publisher.publish("orders", "created", "order-" + i));
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, broker.getPublished().size());
+        InProcessBroker.Published published = broker.getPublished().get(0);
+        assertTrue(published.properties.getContentEncoding().startsWith("gzip"));
+        MessageProperties properties = new DefaultMessagePropertiesConverter()
+                .toMessageProperties(published.properties, null, StandardCharsets.UTF_8.name());
+        Message batch = new GUnzipPostProcessor().postProcessMessage(new Message(published.body, properties));
+        assertEquals("lengthHeader4", batch.getMessageProperties().getHeader(MessageProperties.SPRING_BATCH_FORMAT));
+
+        List<String> bodies = new ArrayList<>();
+        new SimpleBatchingStrategy(0, 0, 0L).deBatch(batch,
+                message -> bodies.add(new String(message.getBody(), StandardCharsets.UTF_8)));
+        assertEquals(3, bodies.size());
+        assertEquals("\"order-2\"", bodies.get(2));
+    }
+
+    @Test
+    void flushesPartialBatchOnTimeout() throws Exception {
+        ReflectionTestUtils.setField(publisher, "batchEnabled", true);
+        publisher.init();
+
+        publisher.publish("orders", "created", "order-1").get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, broker.getPublished().size());
+        assertEquals("\"order-1\"", new String(broker.getPublished().get(0).body, StandardCharsets.UTF_8));
+    }
+
+    private BusinessException assertPublishFailed(CompletableFuture<Void> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(BusinessException.class, e.getCause());
+        BusinessException cause = (BusinessException) e.getCause();
+        assertEquals(ResultCodeEnum.MQ_PUBLISH_FAILED.getCode(), cause.getCode());
+        return cause;
+    }
+}
@@ -0,0 +1,189 @@
+package com.sunboat.common.core.mq;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.AddressResolver;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.impl.LongStringHelper;
+import com.rabbitmq.client.Return;
+import com.rabbitmq.client.ReturnCallback;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 进程内broker替身：基于mock的RabbitMQ客户端连接，记录发布的消息，
+ * 并按预设的应答方式在独立线程中回调确认（ack/nack）、退回（basic.return）或不应答
+ */
+class InProcessBroker implements AutoCloseable {
+
+    enum Reply {
+        ACK, NACK, RETURN, SILENT
+    }
+
+    static class Published {
+        final String exchange;
+        final String routingKey;
+        final AMQP.BasicProperties properties;
+        final byte[] body;
+
+        Published(String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.properties = properties;
+            this.body = body;
+        }
+    }
+
+    private final List<Published> published = new CopyOnWriteArrayList<>();
+
+    /**
+     * 依次使用的应答方式，用完后使用默认应答
+     */
+    private final Queue<Reply> scripted = new ConcurrentLinkedQueue<>();
+
+    private final ExecutorService brokerThread = Executors.newSingleThreadExecutor();
+
+    private final CachingConnectionFactory connectionFactory;
+
+    private volatile Reply defaultReply = Reply.ACK;
+
+    InProcessBroker() throws Exception {
+        com.rabbitmq.client.ConnectionFactory rabbitConnectionFactory = mock(com.rabbitmq.client.ConnectionFactory.class);
+        Connection connection = mock(Connection.class);
+        when(rabbitConnectionFactory.newConnection(nullable(ExecutorService.class), nullable(String.class))).thenReturn(connection);
+        when(rabbitConnectionFactory.newConnection(nullable(ExecutorService.class), nullable(AddressResolver.class), nullable(String.class)))
+                .thenReturn(connection);
+        when(connection.isOpen()).thenReturn(true);
+        when(connection.createChannel()).thenAnswer(invocation -> newChannel(connection));
+
+        connectionFactory = new CachingConnectionFactory(rabbitConnectionFactory);
+        connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+        connectionFactory.setPublisherReturns(true);
+    }
+
+    CachingConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    List<Published> getPublished() {
+        return published;
+    }
+
+    void setDefaultReply(Reply reply) {
+        defaultReply = reply;
+    }
+
+    void script(Reply... replies) {
+        for (Reply reply : replies) {
+            scripted.add(reply);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        connectionFactory.destroy();
+        brokerThread.shutdownNow();
+        brokerThread.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 每个信道独立维护发布序号和监听器，与真实broker一致
+     */
+    private Channel newChannel(Connection connection) throws IOException {
+        Channel channel = mock(Channel.class);
+        AtomicLong publishSeqNo = new AtomicLong(1);
+        AtomicReference<ConfirmListener> confirmListener = new AtomicReference<>();
+        AtomicReference<ReturnCallback> returnCallback = new AtomicReference<>();
+        when(channel.isOpen()).thenReturn(true);
+        when(channel.getConnection()).thenReturn(connection);
+        when(channel.getNextPublishSeqNo()).thenAnswer(invocation -> publishSeqNo.get());
+        doAnswer(invocation -> {
+            confirmListener.set(invocation.getArgument(0));
+            return null;
+        }).when(channel).addConfirmListener(any(ConfirmListener.class));
+        doAnswer(invocation -> {
+            returnCallback.set(invocation.getArgument(0));
+            return null;
+        }).when(channel).addReturnListener(any(ReturnCallback.class));
+        doAnswer(invocation -> {
+            String exchange = invocation.getArgument(0);
+            String routingKey = invocation.getArgument(1);
+            AMQP.BasicProperties properties = invocation.getArgument(3);
+            byte[] body = invocation.getArgument(4);
+            long seqNo = publishSeqNo.getAndIncrement();
+            published.add(new Published(exchange, routingKey, properties, body));
+            Reply polled = scripted.poll();
+            Reply reply = polled != null ? polled : defaultReply;
+            if (reply != Reply.SILENT) {
+                brokerThread.execute(() -> reply(reply, seqNo, confirmListener.get(), returnCallback.get(),
+                        new Return(312, "NO_ROUTE", exchange, routingKey, onWire(properties), body)));
+            }
+            return null;
+        }).when(channel).basicPublish(anyString(), anyString(), anyBoolean(), any(AMQP.BasicProperties.class),
+                any(byte[].class));
+        return channel;
+    }
+
+    /**
+     * 模拟经过broker往返后的属性：字符串头部变为LongString，头部为可修改的Map
+     */
+    private static AMQP.BasicProperties onWire(AMQP.BasicProperties properties) {
+        if (properties.getHeaders() == null) {
+            return properties;
+        }
+        Map<String, Object> headers = new HashMap<>();
+        properties.getHeaders().forEach((name, value) ->
+                headers.put(name, value instanceof String ? LongStringHelper.asLongString((String) value) : value));
+        return new AMQP.BasicProperties(properties.getContentType(), properties.getContentEncoding(), null,
+                properties.getDeliveryMode(), properties.getPriority(), properties.getCorrelationId(),
+                properties.getReplyTo(), properties.getExpiration(), properties.getMessageId(),
+                properties.getTimestamp(), properties.getType(), properties.getUserId(), properties.getAppId(),
+                properties.getClusterId()) {
+            @Override
+            public Map<String, Object> getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    private static void reply(Reply reply, long seqNo, ConfirmListener confirmListener, ReturnCallback returnCallback,
+                              Return returned) {
+        try {
+            switch (reply) {
+                case NACK:
+                    confirmListener.handleNack(seqNo, false);
+                    break;
+                case RETURN:
+                    // 与broker一致：先退回，再确认
+                    returnCallback.handle(returned);
+                    confirmListener.handleAck(seqNo, false);
+                    break;
+                default:
+                    confirmListener.handleAck(seqNo, false);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
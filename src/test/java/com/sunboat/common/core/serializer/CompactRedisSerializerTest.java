@@ -0,0 +1,113 @@
+package com.sunboat.common.core.serializer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactRedisSerializerTest {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Order {
+        private String id;
+        private long amount;
+        private List<Object> items;
+        private Object extra;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String sku;
+        private int count;
+    }
+
+    @Test
+    void registeredTypeOmitsClassName() {
+        CompactRedisSerializer registered = new CompactRedisSerializer().register(1, Order.class);
+        CompactRedisSerializer byName = trusted();
+        Order order = new Order("o-1", 100L, new ArrayList<>(Arrays.asList("a", 1L)), null);
+
+        byte[] compact = registered.serialize(order);
+        byte[] named = byName.serialize(order);
+
+        assertTrue(compact.length < named.length);
+        assertFalse(text(compact).contains(Order.class.getName()));
+        assertFalse(text(compact).contains("@class"));
+        assertEquals(order, registered.deserialize(compact));
+    }
+
+    @Test
+    void unregisteredTypeWritesClassNameOnce() {
+        CompactRedisSerializer serializer = trusted();
+        Order order = new Order("o-1", 100L, null, null);
+
+        byte[] bytes = serializer.serialize(order);
+
+        String content = text(bytes);
+        assertEquals(content.indexOf(Order.class.getName()), content.lastIndexOf(Order.class.getName()));
+        assertEquals(order, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void nestedValuesKeepType() {
+        CompactRedisSerializer serializer = trusted().register(1, Order.class);
+        Order order = new Order("o-1", 100L, new ArrayList<>(Arrays.asList(new Item("sku-1", 2), 3L)), new Item("sku-2", 1));
+
+        Order result = (Order) serializer.deserialize(serializer.serialize(order));
+
+        assertInstanceOf(Item.class, result.getExtra());
+        assertInstanceOf(Item.class, result.getItems().get(0));
+        assertInstanceOf(Long.class, result.getItems().get(1));
+        assertEquals(order, result);
+    }
+
+    @Test
+    void rejectsUntrustedTypesByDefault() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer();
+
+        assertThrows(SerializationException.class, () -> serializer.serialize(new Order()));
+        assertThrows(SerializationException.class, () -> serializer.deserialize(trusted().serialize(new Order())));
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("item", new Item("sku-1", 1));
+        assertThrows(SerializationException.class, () -> serializer.deserialize(trusted().serialize(map)));
+    }
+
+    @Test
+    void allowsJavaTypesByDefault() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer();
+        Map<String, Object> map = new HashMap<>();
+        map.put("list", new ArrayList<>(Arrays.asList(1, "a")));
+        map.put("amount", 10L);
+
+        assertEquals(map, serializer.deserialize(serializer.serialize(map)));
+    }
+
+    private static CompactRedisSerializer trusted() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer();
+        serializer.setTrustedPackages("com.sunboat.");
+        return serializer;
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}